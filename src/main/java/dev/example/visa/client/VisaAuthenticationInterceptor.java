@@ -1,7 +1,13 @@
 package dev.example.visa.client;
 
+import dev.example.visa.config.StartupWarmup;
+import dev.example.visa.security.SecretRotationEvent;
+import dev.example.visa.security.SecretSnapshot;
 import dev.example.visa.security.VaultService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.event.ApplicationEventListener;
 import io.micronaut.http.HttpRequest;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.MutableHttpRequest;
@@ -18,18 +24,33 @@ import reactor.core.publisher.Mono;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Singleton
 @Requires(notEnv = "test")
 @Filter("${visa.api.base-url}/**")
-public class VisaAuthenticationInterceptor implements HttpClientFilter {
+public class VisaAuthenticationInterceptor implements HttpClientFilter, ApplicationEventListener<SecretRotationEvent> {
+
+    private static final String API_KEY = "api_key";
+    private static final String API_SECRET = "api_secret";
 
     private final VaultService vaultService;
+    private final Counter headerRebuilds;
+
+    /**
+     * Authorization header computed for a given secret snapshot version.
+     */
+    private record AuthorizationHeader(long version, String value) {
+    }
+
+    private final AtomicReference<AuthorizationHeader> authorizationHeader = new AtomicReference<>();
 
-    public VisaAuthenticationInterceptor(VaultService vaultService) {
+    public VisaAuthenticationInterceptor(VaultService vaultService, MeterRegistry meterRegistry) {
         this.vaultService = vaultService;
+        this.headerRebuilds = meterRegistry.counter("visa.auth.header.rebuilds");
     }
 
     @Override
@@ -37,20 +58,31 @@ public class VisaAuthenticationInterceptor implements HttpClientFilter {
     public Publisher<? extends HttpResponse<?>> doFilter(
             @SpanTag("http.request") MutableHttpRequest<?> request, ClientFilterChain chain) {
 
+        // Warm-up requests only open connections and must not carry credentials
+        if (request.getAttribute(StartupWarmup.WARMUP_ATTRIBUTE).isPresent()) {
+            return chain.proceed(request);
+        }
+
         if (!request.getHeaders().contains("X-Correlation-Id")) {
             request.header("X-Correlation-Id", UUID.randomUUID().toString());
         }
 
-        return Mono.zip(vaultService.getApiKey(), vaultService.getApiSecret())
-                .flatMap(credentials -> {
-                    String apiKey = credentials.getT1();
-                    String apiSecret = credentials.getT2();
-
-                    request.header("Authorization", createBasicAuthHeader(apiKey, apiSecret));
-                    request.header("X-Request-Timestamp", Instant.now().toString());
-
-                    logRequest(request);
+        // Hot path: credentials are already cached, set the precomputed header synchronously
+        Optional<SecretSnapshot> current = vaultService.cachedSnapshot();
+        if (current.isPresent()) {
+            try {
+                applyHeaders(request, resolveHeader(current.get()));
+            } catch (RuntimeException e) {
+                log.error("Error in authentication interceptor", e);
+                return Mono.error(e);
+            }
+            return chain.proceed(request);
+        }
 
+        // Cold path: nothing cached yet, wait for the first snapshot
+        return vaultService.getSnapshot()
+                .flatMap(snapshot -> {
+                    applyHeaders(request, resolveHeader(snapshot));
                     return Mono.from(chain.proceed(request));
                 })
                 .onErrorResume(e -> {
@@ -59,18 +91,72 @@ public class VisaAuthenticationInterceptor implements HttpClientFilter {
                 });
     }
 
+    /**
+     * Rebuilds the header as soon as rotated credentials are published, ahead of the next request.
+     */
+    @Override
+    public void onApplicationEvent(SecretRotationEvent event) {
+        try {
+            resolveHeader(event.current());
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild Authorization header for credentials version {}", event.current().version(), e);
+        }
+    }
+
+    /**
+     * Returns the header for the snapshot, rebuilding it only when the credentials version changed.
+     * The cached header never goes back to an older version, so a late rebuild from an older snapshot
+     * cannot replace the header of newer credentials.
+     */
+    private String resolveHeader(SecretSnapshot snapshot) {
+        AuthorizationHeader cached = authorizationHeader.get();
+        if (cached != null && cached.version() >= snapshot.version()) {
+            return cached.value();
+        }
+
+        String apiKey = snapshot.get(API_KEY)
+                .orElseThrow(() -> new IllegalStateException("Secret not found: " + API_KEY));
+        String apiSecret = snapshot.get(API_SECRET)
+                .orElseThrow(() -> new IllegalStateException("Secret not found: " + API_SECRET));
+        AuthorizationHeader rebuilt = new AuthorizationHeader(snapshot.version(), createBasicAuthHeader(apiKey, apiSecret));
+
+        while (!authorizationHeader.compareAndSet(cached, rebuilt)) {
+            cached = authorizationHeader.get();
+            if (cached != null && cached.version() >= snapshot.version()) {
+                // A concurrent rebuild got there first with the same or newer credentials
+                return cached.value();
+            }
+        }
+        headerRebuilds.increment();
+        log.info("Rebuilt Authorization header for credentials version {}", snapshot.version());
+        return rebuilt.value();
+    }
+
+    private void applyHeaders(MutableHttpRequest<?> request, String authorization) {
+        request.header("Authorization", authorization);
+        request.header("X-Request-Timestamp", Instant.now().toString());
+
+        logRequest(request);
+    }
+
     private String createBasicAuthHeader(String username, String password) {
         String credentials = username + ":" + password;
         return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
     }
 
     private void logRequest(HttpRequest<?> request) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+
         log.debug("Sending request to Visa API: {} {}", request.getMethod(), request.getUri());
 
-        request.getHeaders().forEach((name, values) -> {
-            if (!"Authorization".equalsIgnoreCase(name) && !"X-Client-Token".equalsIgnoreCase(name)) {
-                log.trace("Header: {} = {}", name, String.join(", ", values));
-            }
-        });
+        if (log.isTraceEnabled()) {
+            request.getHeaders().forEach((name, values) -> {
+                if (!"Authorization".equalsIgnoreCase(name) && !"X-Client-Token".equalsIgnoreCase(name)) {
+                    log.trace("Header: {} = {}", name, String.join(", ", values));
+                }
+            });
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.env.Environment;
+import io.micronaut.core.naming.NameUtils;
+import io.micronaut.core.value.PropertyResolver;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * One bulkhead per {@link VisaOperation}, so a degraded endpoint can only tie up its own share of the
+ * connections and the other operations keep working.
+ * <p>
+ * A bulkhead lets {@code visa.api.bulkhead.max-concurrent} calls of its operation run at once; further calls
+ * wait in a FIFO queue of {@code max-queued} for up to {@code queue-timeout} and are rejected with a
+ * {@link VisaCallRejectedException} when the queue is full or the wait runs out. Both limits can be set per
+ * operation under {@code visa.api.bulkhead.operations.<operation>}, e.g. {@code operations.get-data.max-concurrent}.
+ * {@code visa.bulkhead.active}, {@code visa.bulkhead.queued} and {@code visa.bulkhead.saturation} (active
+ * calls over the limit) show how close each operation is to its limit.
+ */
+@Slf4j
+@Singleton
+public class VisaBulkheads {
+
+    private static final String REJECTION_REASON = "bulkhead-full";
+    private static final String OPERATIONS_PREFIX = "visa.api.bulkhead.operations.";
+
+    private final boolean enabled;
+    private final Duration queueTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Map<VisaOperation, Bulkhead> bulkheads = new EnumMap<>(VisaOperation.class);
+
+    @Inject
+    public VisaBulkheads(@Value("${visa.api.bulkhead.enabled:true}") boolean enabled,
+                         @Value("${visa.api.bulkhead.max-concurrent:10}") int maxConcurrent,
+                         @Value("${visa.api.bulkhead.max-queued:20}") int maxQueued,
+                         @Value("${visa.api.bulkhead.queue-timeout:200ms}") Duration queueTimeout,
+                         Environment environment,
+                         MeterRegistry meterRegistry) {
+        this(enabled, maxConcurrent, maxQueued, queueTimeout, (PropertyResolver) environment, meterRegistry);
+    }
+
+    VisaBulkheads(boolean enabled, int maxConcurrent, int maxQueued, Duration queueTimeout,
+                  PropertyResolver properties, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.queueTimeout = queueTimeout;
+        this.meterRegistry = meterRegistry;
+
+        for (VisaOperation operation : VisaOperation.values()) {
+            String prefix = OPERATIONS_PREFIX + NameUtils.hyphenate(operation.id()) + ".";
+            Bulkhead bulkhead = new Bulkhead(operation,
+                    Math.max(1, properties.getProperty(prefix + "max-concurrent", Integer.class, maxConcurrent)),
+                    properties.getProperty(prefix + "max-queued", Integer.class, maxQueued));
+            bulkheads.put(operation, bulkhead);
+
+            Tags tags = Tags.of("operation", operation.id());
+            meterRegistry.gauge("visa.bulkhead.limit", tags, bulkhead, b -> b.maxConcurrent);
+            meterRegistry.gauge("visa.bulkhead.active", tags, bulkhead, Bulkhead::active);
+            meterRegistry.gauge("visa.bulkhead.queued", tags, bulkhead, Bulkhead::queued);
+            meterRegistry.gauge("visa.bulkhead.saturation", tags, bulkhead,
+                    b -> (double) b.active() / b.maxConcurrent);
+        }
+    }
+
+    /**
+     * Runs the call once the bulkhead of the operation has room for it.
+     */
+    public <T> Mono<T> execute(VisaOperation operation, Supplier<? extends Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        Bulkhead bulkhead = bulkheads.get(operation);
+        return Mono.usingWhen(bulkhead.acquire(),
+                acquired -> Mono.defer(call),
+                acquired -> Mono.fromRunnable(acquired::release),
+                (acquired, e) -> Mono.fromRunnable(acquired::release),
+                acquired -> Mono.fromRunnable(acquired::release));
+    }
+
+    /**
+     * Returns the number of calls of the operation currently running.
+     */
+    public int active(VisaOperation operation) {
+        return bulkheads.get(operation).active();
+    }
+
+    private final class Bulkhead {
+
+        private final VisaOperation operation;
+        private final int maxConcurrent;
+        private final int maxQueued;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private int active;
+
+        private Bulkhead(VisaOperation operation, int maxConcurrent, int maxQueued) {
+            this.operation = operation;
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+        }
+
+        private Mono<Bulkhead> acquire() {
+            return Mono.create(sink -> {
+                boolean acquired = false;
+                Waiter waiter = null;
+                synchronized (this) {
+                    if (active < maxConcurrent && waiters.isEmpty()) {
+                        active++;
+                        acquired = true;
+                    } else if (waiters.size() < maxQueued && !queueTimeout.isZero()) {
+                        waiter = new Waiter(sink);
+                        waiters.add(waiter);
+                    }
+                }
+                if (acquired) {
+                    sink.success(this);
+                    return;
+                }
+                if (waiter == null) {
+                    sink.error(reject("queue is full"));
+                    return;
+                }
+
+                Waiter queued = waiter;
+                queued.timer = Schedulers.parallel().schedule(() -> {
+                    if (abandon(queued)) {
+                        sink.error(reject("no room within " + queueTimeout));
+                    }
+                }, queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                sink.onCancel(() -> {
+                    if (!abandon(queued) && queued.granted) {
+                        // Granted but cancelled before the slot was handed over
+                        release();
+                    }
+                });
+            });
+        }
+
+        private synchronized boolean abandon(Waiter waiter) {
+            return waiters.remove(waiter);
+        }
+
+        /**
+         * Frees a slot, handing it straight to the oldest waiting call if there is one.
+         */
+        private void release() {
+            Waiter next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+                next.granted = true;
+            }
+            // The timer may not be set yet, it then fires on a granted waiter and does nothing
+            Disposable timer = next.timer;
+            if (timer != null) {
+                timer.dispose();
+            }
+            next.sink.success(this);
+        }
+
+        private synchronized int active() {
+            return active;
+        }
+
+        private synchronized int queued() {
+            return waiters.size();
+        }
+
+        private VisaCallRejectedException reject(String detail) {
+            meterRegistry.counter("visa.bulkhead.rejections", Tags.of("operation", operation.id())).increment();
+            return new VisaCallRejectedException(operation, REJECTION_REASON,
+                    "Bulkhead of " + operation + " is full (" + maxConcurrent + " running): " + detail);
+        }
+    }
+
+    private static final class Waiter {
+
+        private final MonoSink<Bulkhead> sink;
+        private volatile boolean granted;
+        private volatile Disposable timer;
+
+        private Waiter(MonoSink<Bulkhead> sink) {
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.example.visa.client;
+
+import lombok.Getter;
+
+/**
+ * Signals that a Visa call was not attempted because a client-side protection shed it,
+ * e.g. the adaptive concurrency limit was reached. The call never reached Visa, so callers
+ * may safely try again later.
+ */
+@Getter
+public class VisaCallRejectedException extends RuntimeException {
+
+    private final VisaOperation operation;
+    private final String reason;
+
+    public VisaCallRejectedException(VisaOperation operation, String reason, String message) {
+        super(message);
+        this.operation = operation;
+        this.reason = reason;
+    }
+}
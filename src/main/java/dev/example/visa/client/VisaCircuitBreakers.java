@@ -0,0 +1,242 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * One circuit breaker per {@link VisaOperation}, so a failing endpoint does not keep tying up connections
+ * and read timeouts while the other operations stay available.
+ * <p>
+ * A breaker records the outcome of the last {@code visa.api.circuit-breaker.window-size} calls. Once at least
+ * {@code minimum-calls} were recorded and either the share of failed calls reaches
+ * {@code failure-rate-threshold} or the share of calls slower than {@code slow-call-duration} reaches
+ * {@code slow-call-rate-threshold} (both in percent), the breaker opens and calls fail immediately with a
+ * {@link VisaCallRejectedException}. After {@code open-duration} it lets {@code half-open-calls} probes through:
+ * if all of them succeed in time it closes again, otherwise it reopens.
+ * <p>
+ * Failures are classified by {@link VisaErrorClassifier}; 4xx answers count as successful calls.
+ * The state per operation is exported as {@code visa.circuit.state} (0 closed, 1 open, 2 half-open)
+ * and every transition is counted in {@code visa.circuit.transitions}.
+ */
+@Slf4j
+@Singleton
+public class VisaCircuitBreakers {
+
+    /**
+     * State of a circuit breaker. The ordinal is the value of the state gauge.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final String REJECTION_REASON = "circuit-open";
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final MeterRegistry meterRegistry;
+    private final Map<VisaOperation, Breaker> breakers = new EnumMap<>(VisaOperation.class);
+
+    public VisaCircuitBreakers(@Value("${visa.api.circuit-breaker.enabled:true}") boolean enabled,
+                               @Value("${visa.api.circuit-breaker.window-size:20}") int windowSize,
+                               @Value("${visa.api.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                               @Value("${visa.api.circuit-breaker.failure-rate-threshold:50}") double failureRateThreshold,
+                               @Value("${visa.api.circuit-breaker.slow-call-duration:5s}") Duration slowCallDuration,
+                               @Value("${visa.api.circuit-breaker.slow-call-rate-threshold:80}") double slowCallRateThreshold,
+                               @Value("${visa.api.circuit-breaker.open-duration:30s}") Duration openDuration,
+                               @Value("${visa.api.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.meterRegistry = meterRegistry;
+
+        for (VisaOperation operation : VisaOperation.values()) {
+            Breaker breaker = new Breaker(operation);
+            breakers.put(operation, breaker);
+            meterRegistry.gauge("visa.circuit.state", Tags.of("operation", operation.id()), breaker,
+                    b -> b.state().ordinal());
+        }
+    }
+
+    /**
+     * Runs the call unless the breaker of the operation is open.
+     */
+    public <T> Mono<T> execute(VisaOperation operation, Supplier<? extends Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        Breaker breaker = breakers.get(operation);
+        return Mono.defer(() -> {
+            long permit = breaker.tryAcquire();
+            if (permit < 0) {
+                meterRegistry.counter("visa.circuit.rejections", Tags.of("operation", operation.id())).increment();
+                return Mono.error(new VisaCallRejectedException(operation, REJECTION_REASON,
+                        "Circuit breaker for " + operation + " is open"));
+            }
+
+            long start = System.nanoTime();
+            AtomicBoolean recorded = new AtomicBoolean();
+            return Mono.defer(call)
+                    .doOnSuccess(value -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            breaker.onResult(permit, false, System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            if (e instanceof VisaCallRejectedException) {
+                                breaker.onIgnored(permit);
+                            } else {
+                                breaker.onResult(permit, VisaErrorClassifier.isVisaFailure(e), System.nanoTime() - start);
+                            }
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            breaker.onIgnored(permit);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Returns the current state of the breaker of the operation.
+     */
+    public State state(VisaOperation operation) {
+        return breakers.get(operation).state();
+    }
+
+    /**
+     * Breaker of a single operation. Every transition starts a new epoch; results of calls admitted
+     * in an earlier epoch are ignored, so e.g. a slow call from before the breaker opened cannot
+     * count as a half-open probe.
+     */
+    private final class Breaker {
+
+        private final VisaOperation operation;
+        private final boolean[] failed = new boolean[windowSize];
+        private final boolean[] slow = new boolean[windowSize];
+
+        private State state = State.CLOSED;
+        private long epoch;
+        private long openedAt;
+        private int recorded;
+        private int next;
+        private int failures;
+        private int slowCalls;
+        private int probesInFlight;
+        private int probesSucceeded;
+
+        private Breaker(VisaOperation operation) {
+            this.operation = operation;
+        }
+
+        private synchronized State state() {
+            return state;
+        }
+
+        /**
+         * Returns the epoch the call is admitted in, or -1 when the call is not permitted.
+         */
+        private synchronized long tryAcquire() {
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return -1;
+                }
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight + probesSucceeded >= halfOpenCalls) {
+                    return -1;
+                }
+                probesInFlight++;
+            }
+            return epoch;
+        }
+
+        private synchronized void onResult(long permit, boolean failure, long durationNanos) {
+            if (permit != epoch) {
+                return;
+            }
+            boolean slowCall = durationNanos >= slowCallNanos;
+            if (state == State.HALF_OPEN) {
+                probesInFlight--;
+                if (failure || slowCall) {
+                    transition(State.OPEN);
+                } else if (++probesSucceeded >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                }
+                return;
+            }
+
+            if (recorded == windowSize) {
+                failures -= failed[next] ? 1 : 0;
+                slowCalls -= slow[next] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+            failed[next] = failure;
+            slow[next] = slowCall;
+            failures += failure ? 1 : 0;
+            slowCalls += slowCall ? 1 : 0;
+            next = (next + 1) % windowSize;
+
+            if (recorded >= minimumCalls) {
+                double failureRate = 100.0 * failures / recorded;
+                double slowCallRate = 100.0 * slowCalls / recorded;
+                if (failureRate >= failureRateThreshold || slowCallRate >= slowCallRateThreshold) {
+                    log.warn("Opening circuit breaker for {}: {}% failed and {}% slow of the last {} calls",
+                            operation, Math.round(failureRate), Math.round(slowCallRate), recorded);
+                    transition(State.OPEN);
+                }
+            }
+        }
+
+        private synchronized void onIgnored(long permit) {
+            if (permit == epoch && state == State.HALF_OPEN) {
+                probesInFlight--;
+            }
+        }
+
+        private void transition(State target) {
+            meterRegistry.counter("visa.circuit.transitions", Tags.of(
+                    "operation", operation.id(),
+                    "from", state.name().toLowerCase(),
+                    "to", target.name().toLowerCase())).increment();
+            if (target != State.OPEN) {
+                log.info("Circuit breaker for {} is now {}", operation, target);
+            }
+
+            state = target;
+            epoch++;
+            openedAt = System.nanoTime();
+            recorded = 0;
+            next = 0;
+            failures = 0;
+            slowCalls = 0;
+            probesInFlight = 0;
+            probesSucceeded = 0;
+        }
+    }
+}
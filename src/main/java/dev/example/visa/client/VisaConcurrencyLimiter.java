@@ -0,0 +1,261 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive limit on the number of Visa calls in flight.
+ * <p>
+ * The limit follows the round-trip time with a gradient algorithm: a long-term average RTT is compared to
+ * each new sample, and while the sample stays within {@code visa.api.concurrency.rtt-tolerance} of the average
+ * the limit grows by roughly its square root. When Visa slows down the gradient drops below one and the limit
+ * shrinks with it; timeouts, connection failures, 5xx and 429 responses cut it multiplicatively. The limit
+ * does not grow while less than half of it is used, so an idle period cannot inflate it.
+ * <p>
+ * Calls over the limit wait up to {@code visa.api.concurrency.queue-timeout} in a bounded FIFO queue and are
+ * rejected with a {@link VisaCallRejectedException} when the queue is full or the wait runs out.
+ */
+@Slf4j
+@Singleton
+public class VisaConcurrencyLimiter {
+
+    private static final String REJECTION_REASON = "concurrency-limit";
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double longRttFactor;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    private double estimatedLimit;
+    private double longRttNanos;
+    private volatile int limit;
+
+    public VisaConcurrencyLimiter(@Value("${visa.api.concurrency.enabled:true}") boolean enabled,
+                                  @Value("${visa.api.concurrency.initial-limit:20}") int initialLimit,
+                                  @Value("${visa.api.concurrency.min-limit:4}") int minLimit,
+                                  @Value("${visa.api.concurrency.max-limit:200}") int maxLimit,
+                                  @Value("${visa.api.concurrency.rtt-tolerance:1.5}") double rttTolerance,
+                                  @Value("${visa.api.concurrency.smoothing:0.2}") double smoothing,
+                                  @Value("${visa.api.concurrency.long-window:600}") int longWindow,
+                                  @Value("${visa.api.concurrency.max-queued:50}") int maxQueued,
+                                  @Value("${visa.api.concurrency.queue-timeout:100ms}") Duration queueTimeout,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.longRttFactor = 2.0 / (longWindow + 1);
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.meterRegistry = meterRegistry;
+
+        meterRegistry.gauge("visa.concurrency.limit", this, VisaConcurrencyLimiter::limit);
+        meterRegistry.gauge("visa.concurrency.in-flight", inFlight);
+        meterRegistry.gauge("visa.concurrency.queued", queued);
+
+        log.info("Visa concurrency limiter {} with initial limit {} (min {}, max {}), queue limit {} for {}",
+                enabled ? "enabled" : "disabled", limit, minLimit, maxLimit, maxQueued, queueTimeout);
+    }
+
+    /**
+     * Runs the call once a slot under the limit is free.
+     */
+    public <T> Mono<T> execute(VisaOperation operation, Supplier<? extends Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return acquire(operation).flatMap(start -> {
+            int inFlightAtStart = inFlight.get();
+            AtomicBoolean released = new AtomicBoolean();
+            return Mono.defer(call)
+                    .doOnSuccess(value -> {
+                        if (released.compareAndSet(false, true)) {
+                            release(start, inFlightAtStart, false);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (released.compareAndSet(false, true)) {
+                            release(start, inFlightAtStart, VisaErrorClassifier.isVisaFailure(e));
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        // A cancelled call says nothing about Visa's latency
+                        if (released.compareAndSet(false, true)) {
+                            inFlight.decrementAndGet();
+                            drain();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     */
+    public int limit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private Mono<Long> acquire(VisaOperation operation) {
+        return Mono.defer(() -> {
+            if (waiters.isEmpty() && tryAcquire()) {
+                return Mono.just(System.nanoTime());
+            }
+            if (queueTimeout.isZero()) {
+                return Mono.error(reject(operation, "queueing is disabled"));
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                return Mono.error(reject(operation, "queue is full"));
+            }
+            return Mono.<Long>create(sink -> {
+                Waiter waiter = new Waiter(sink);
+                waiter.timer = Schedulers.parallel().schedule(() -> {
+                    if (waiter.abandon()) {
+                        sink.error(reject(operation, "no slot within " + queueTimeout));
+                    }
+                }, queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                sink.onCancel(() -> {
+                    if (!waiter.abandon() && waiter.state.get() == Waiter.GRANTED) {
+                        // Granted but cancelled before the slot was handed over
+                        inFlight.decrementAndGet();
+                        drain();
+                    }
+                });
+                waiters.add(waiter);
+                drain();
+            });
+        });
+    }
+
+    private boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Hands free slots to queued calls in arrival order.
+     */
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.grant()) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private void release(long start, int inFlightAtStart, boolean overload) {
+        inFlight.decrementAndGet();
+        onSample(System.nanoTime() - start, inFlightAtStart, overload);
+        drain();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart, boolean overload) {
+        if (overload) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+        } else {
+            longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) * longRttFactor;
+            // After a slow period the average lags far behind, let it catch up faster with the recovered RTT
+            if (longRttNanos > 2 * rttNanos) {
+                longRttNanos *= 0.95;
+            }
+            if (inFlightAtStart < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+            double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit,
+                    estimatedLimit * (1 - smoothing) + newLimit * smoothing));
+        }
+
+        int previous = limit;
+        limit = (int) estimatedLimit;
+        if (previous != limit) {
+            log.debug("Visa concurrency limit {} -> {} (rtt {}ms, long rtt {}ms)", previous, limit,
+                    rttNanos / 1_000_000, (long) longRttNanos / 1_000_000);
+        }
+    }
+
+    private VisaCallRejectedException reject(VisaOperation operation, String detail) {
+        meterRegistry.counter("visa.concurrency.rejections", Tags.of("operation", operation.id())).increment();
+        return new VisaCallRejectedException(operation, REJECTION_REASON,
+                "Visa concurrency limit of " + limit + " reached for " + operation + ": " + detail);
+    }
+
+    /**
+     * A call waiting in the queue. Exactly one of granting a slot, timing out or cancelling wins.
+     */
+    private final class Waiter {
+
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int ABANDONED = 2;
+
+        private final MonoSink<Long> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private Disposable timer;
+
+        private Waiter(MonoSink<Long> sink) {
+            this.sink = sink;
+        }
+
+        private boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            timer.dispose();
+            sink.success(System.nanoTime());
+            return true;
+        }
+
+        private boolean abandon() {
+            if (!state.compareAndSet(WAITING, ABANDONED)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            waiters.remove(this);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package dev.example.visa.client;
+
+import dev.example.visa.security.TlsMaterialRotationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.http.client.netty.NettyClientCustomizer;
+import io.micronaut.http.netty.channel.ChannelPipelineCustomizer;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the pooled connections of the Visa client.
+ * <p>
+ * Every connection gets a handler that counts its requests in flight, one per exchange on HTTP/1.1 and one
+ * per open stream on a multiplexed HTTP/2 connection ({@code visa.http2.connections},
+ * {@code visa.http2.streams.active}). This drives the pool gauges
+ * ({@code visa.http.pool.connections} by state active/idle, {@code visa.http.pool.pending}). Pending is the
+ * number of requests the {@link VisaPoolQueueFilter} handed to the client minus the requests in flight on a
+ * connection, i.e. the requests waiting for a pooled connection or for one to be opened. The pool offers no
+ * acquire callback and a request cannot be matched to the connection write without tagging it on the wire,
+ * so the wait of individual requests is not measured; {@code visa.api.pool.acquire-timeout} bounds it.
+ * Writes that stall for longer than {@code visa.api.write-timeout} close the connection.
+ * <p>
+ * Connections are also tagged with the TLS material version they were opened with. After a
+ * {@link TlsMaterialRotationEvent} cached TLS sessions are dropped and each older connection starts
+ * draining at a random point within {@code visa.api.tls.rotation.drain-period}, so the replacement
+ * handshakes are spread out instead of hitting all at once. A draining HTTP/1.1 connection is closed as soon
+ * as it has no request in flight; a request that is still dispatched to it is sent with {@code Connection: close},
+ * so it completes normally and the connection is not reused afterwards. A draining HTTP/2 connection is closed
+ * right away, which sends GOAWAY and waits for its open streams. No request is aborted by the rotation.
+ */
+@Slf4j
+@Singleton
+@Requires(notEnv = "test")
+public class VisaConnectionTracker implements BeanCreatedEventListener<NettyClientCustomizer.Registry> {
+
+    private static final String HANDLER_NAME = "visa-connection-tracker";
+    private static final String WRITE_TIMEOUT_HANDLER_NAME = "visa-write-timeout";
+    private static final AttributeKey<ConnectionHandler> CONNECTION_HANDLER = AttributeKey.valueOf(HANDLER_NAME);
+
+    private final String visaHost;
+    private final Duration drainPeriod;
+    private final Duration writeTimeout;
+    private final VisaTlsSessionTracker sessionTracker;
+    private final ChannelGroup connections = new DefaultChannelGroup("visa-connections", GlobalEventExecutor.INSTANCE);
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger draining = new AtomicInteger();
+    private final AtomicInteger http2Connections = new AtomicInteger();
+    private final AtomicInteger streams = new AtomicInteger();
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final AtomicInteger dispatched = new AtomicInteger();
+    private final Counter retired;
+
+    private volatile long generation;
+
+    public VisaConnectionTracker(@Value("${visa.api.base-url}") String baseUrl,
+                                 @Value("${visa.api.tls.rotation.drain-period:30s}") Duration drainPeriod,
+                                 @Value("${visa.api.write-timeout:30s}") Duration writeTimeout,
+                                 VisaTlsSessionTracker sessionTracker,
+                                 MeterRegistry meterRegistry) {
+        this.visaHost = URI.create(baseUrl).getHost();
+        this.drainPeriod = drainPeriod;
+        this.writeTimeout = writeTimeout;
+        this.sessionTracker = sessionTracker;
+        this.retired = meterRegistry.counter("visa.http.connections.retired");
+        meterRegistry.gauge("visa.http.pool.connections", Tags.of("state", "active"), active);
+        meterRegistry.gauge("visa.http.pool.connections", Tags.of("state", "idle"), this,
+                tracker -> Math.max(0, tracker.connections.size() - tracker.active.get()));
+        // Responses complete on the connection just before the request terminates in the client
+        meterRegistry.gauge("visa.http.pool.pending", this,
+                tracker -> Math.max(0, tracker.submitted.get() - tracker.dispatched.get()));
+        meterRegistry.gauge("visa.http.connections.draining", draining);
+        meterRegistry.gauge("visa.http2.connections", http2Connections);
+        meterRegistry.gauge("visa.http2.streams.active", streams);
+    }
+
+    @Override
+    public NettyClientCustomizer.Registry onCreated(BeanCreatedEvent<NettyClientCustomizer.Registry> event) {
+        NettyClientCustomizer.Registry registry = event.getBean();
+        registry.register(customizer());
+        return registry;
+    }
+
+    private NettyClientCustomizer customizer() {
+        return new ConnectionCustomizer(null, null);
+    }
+
+    /**
+     * Counts a request handed to the client; it is pending until it is written to a connection.
+     */
+    void submit() {
+        submitted.incrementAndGet();
+    }
+
+    /**
+     * Stops counting a request that terminated, whether or not it was ever written to a connection.
+     */
+    void complete() {
+        submitted.decrementAndGet();
+    }
+
+    /**
+     * Starts draining every connection opened with material older than the rotated one.
+     */
+    @EventListener
+    public void onTlsMaterialRotation(TlsMaterialRotationEvent event) {
+        long current = event.current().version();
+        generation = current;
+        // Resumed sessions would skip client authentication with the rotated certificate
+        sessionTracker.invalidateSessions();
+
+        int scheduled = 0;
+        for (Channel channel : connections) {
+            ConnectionHandler handler = channel.attr(CONNECTION_HANDLER).get();
+            if (handler == null || handler.generation >= current) {
+                continue;
+            }
+            long delay = drainPeriod.isZero() ? 0 : ThreadLocalRandom.current().nextLong(drainPeriod.toMillis() + 1);
+            channel.eventLoop().schedule(() -> handler.startDraining(channel), delay, TimeUnit.MILLISECONDS);
+            scheduled++;
+        }
+        log.info("Draining {} Visa connection(s) opened before TLS material version {} over {}",
+                scheduled, current, drainPeriod);
+    }
+
+    private boolean isVisaConnection(ChannelPipeline pipeline) {
+        SslHandler ssl = pipeline.get(SslHandler.class);
+        return ssl != null && visaHost != null && visaHost.equalsIgnoreCase(ssl.engine().getPeerHost());
+    }
+
+    /**
+     * Starts tracking a new HTTP/1.1 or HTTP/2 connection to Visa, tagged with the current TLS material version.
+     */
+    void track(Channel channel) {
+        ChannelPipeline pipeline = channel.pipeline();
+        ConnectionHandler handler = new ConnectionHandler(generation);
+        channel.attr(CONNECTION_HANDLER).set(handler);
+        connections.add(channel);
+        channel.closeFuture().addListener(future -> handler.onClosed());
+
+        // HTTP/2 connections have no codec, their requests are counted per stream
+        if (pipeline.get(ChannelPipelineCustomizer.HANDLER_HTTP_CLIENT_CODEC) == null) {
+            http2Connections.incrementAndGet();
+            channel.closeFuture().addListener(future -> http2Connections.decrementAndGet());
+            return;
+        }
+        pipeline.addAfter(ChannelPipelineCustomizer.HANDLER_HTTP_CLIENT_CODEC, HANDLER_NAME, handler);
+        if (!writeTimeout.isZero()) {
+            pipeline.addBefore(ChannelPipelineCustomizer.HANDLER_HTTP_CLIENT_CODEC, WRITE_TIMEOUT_HANDLER_NAME,
+                    new WriteTimeoutHandler(writeTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private final class ConnectionCustomizer implements NettyClientCustomizer {
+
+        private final Channel channel;
+        private final ChannelRole role;
+
+        private ConnectionCustomizer(Channel channel, ChannelRole role) {
+            this.channel = channel;
+            this.role = role;
+        }
+
+        @Override
+        public NettyClientCustomizer specializeForChannel(Channel channel, ChannelRole role) {
+            return new ConnectionCustomizer(channel, role);
+        }
+
+        @Override
+        public void onStreamPipelineBuilt() {
+            if (role == ChannelRole.HTTP2_STREAM) {
+                onHttp2Stream(channel);
+            } else if (role == ChannelRole.CONNECTION && isVisaConnection(channel.pipeline())) {
+                track(channel);
+            }
+        }
+
+        /**
+         * A stream carries exactly one request, so it is in flight from the moment the request is written
+         * until the stream closes. Stream channels share the event loop of their connection.
+         */
+        private void onHttp2Stream(Channel stream) {
+            Channel parent = stream.parent();
+            ConnectionHandler handler = parent != null ? parent.attr(CONNECTION_HANDLER).get() : null;
+            if (handler == null) {
+                return;
+            }
+            stream.pipeline().addLast(HANDLER_NAME, new ChannelOutboundHandlerAdapter() {
+                @Override
+                public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+                    if (msg instanceof HttpRequest) {
+                        handler.onStreamOpened();
+                        ctx.channel().closeFuture().addListener(future -> handler.onStreamClosed());
+                    }
+                    super.write(ctx, msg, promise);
+                }
+            });
+        }
+    }
+
+    /**
+     * Counts the requests in flight on one connection. All state is only touched on the channel's event loop,
+     * which is also where requests are written, so closing an idle connection cannot race a new request.
+     */
+    private final class ConnectionHandler extends ChannelDuplexHandler {
+
+        private final long generation;
+        private int inFlight;
+        private boolean draining;
+
+        private ConnectionHandler(long generation) {
+            this.generation = generation;
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof HttpRequest request) {
+                dispatched.incrementAndGet();
+                if (inFlight++ == 0) {
+                    active.incrementAndGet();
+                }
+                if (draining) {
+                    HttpUtil.setKeepAlive(request, false);
+                }
+            }
+            super.write(ctx, msg, promise);
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            boolean completed = msg instanceof LastHttpContent && inFlight > 0;
+            if (completed) {
+                dispatched.decrementAndGet();
+                if (--inFlight == 0) {
+                    active.decrementAndGet();
+                }
+            }
+            // The pool may dispatch the next request synchronously while the response is handed on
+            super.channelRead(ctx, msg);
+            if (completed && draining && inFlight == 0) {
+                ctx.close();
+            }
+        }
+
+        private void onStreamOpened() {
+            streams.incrementAndGet();
+            dispatched.incrementAndGet();
+            if (inFlight++ == 0) {
+                active.incrementAndGet();
+            }
+        }
+
+        private void onStreamClosed() {
+            streams.decrementAndGet();
+            if (inFlight > 0) {
+                dispatched.decrementAndGet();
+                if (--inFlight == 0) {
+                    active.decrementAndGet();
+                }
+            }
+        }
+
+        private void onClosed() {
+            if (inFlight > 0) {
+                dispatched.addAndGet(-inFlight);
+                inFlight = 0;
+                active.decrementAndGet();
+            }
+        }
+
+        private void startDraining(Channel channel) {
+            if (draining || !channel.isActive()) {
+                return;
+            }
+            draining = true;
+            VisaConnectionTracker.this.draining.incrementAndGet();
+            channel.closeFuture().addListener(future -> {
+                VisaConnectionTracker.this.draining.decrementAndGet();
+                retired.increment();
+            });
+            // Closing an HTTP/2 connection sends GOAWAY and lets the open streams finish first
+            if (inFlight == 0 || channel.pipeline().get(ChannelPipelineCustomizer.HANDLER_HTTP_CLIENT_CODEC) == null) {
+                channel.close();
+            }
+        }
+    }
+}
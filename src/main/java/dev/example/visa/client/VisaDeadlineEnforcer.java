@@ -0,0 +1,89 @@
+package dev.example.visa.client;
+
+import dev.example.visa.util.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Stops Visa calls once the caller they are made for has given up.
+ * <p>
+ * The caller side hands its {@link Deadline} to {@link #within} which puts it into the Reactor context; the
+ * service side runs every call through {@link #execute} which turns the time left into the timeout of the call,
+ * retries and hedges included. Calls without a deadline in their context are left alone.
+ * {@code visa.deadline.expired} counts the requests given up by stage, and {@code visa.deadline.wasted} times
+ * the Visa calls that were already in flight when they had to be abandoned.
+ */
+@Slf4j
+@Singleton
+public class VisaDeadlineEnforcer {
+
+    private final MeterRegistry meterRegistry;
+
+    public VisaDeadlineEnforcer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs the work for a caller that waits until the deadline. Work whose deadline has already passed is
+     * not started, and work abandoned at the deadline completes empty so that no answer is sent.
+     */
+    public <T> Mono<T> within(VisaOperation operation, Deadline deadline, Mono<T> work) {
+        return Mono.defer(() -> {
+                    if (deadline.isExpired()) {
+                        expired(operation, "arrival");
+                        log.warn("Dropping {} request, its deadline {} passed before it was processed",
+                                operation, deadline.expiresAt());
+                        return Mono.<T>empty();
+                    }
+                    return work;
+                })
+                .onErrorResume(VisaDeadlineExceededException.class, e -> {
+                    log.warn("Dropping {} request: {}", operation, e.getMessage());
+                    return Mono.empty();
+                })
+                .contextWrite(Context.of(Deadline.class, deadline));
+    }
+
+    /**
+     * Runs the call under the deadline of the subscriber's context, cancelling it once the deadline passes.
+     */
+    public <T> Mono<T> execute(VisaOperation operation, Supplier<? extends Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            Optional<Deadline> deadline = Deadline.current(context);
+            if (deadline.isEmpty()) {
+                return Mono.defer(call);
+            }
+
+            Duration remaining = deadline.get().remaining();
+            if (remaining.isZero()) {
+                expired(operation, "before-call");
+                return Mono.error(new VisaDeadlineExceededException(operation,
+                        "Deadline of " + operation + " passed before Visa was called"));
+            }
+
+            long start = System.nanoTime();
+            return Mono.defer(call).timeout(remaining, Mono.defer(() -> {
+                long wastedNanos = System.nanoTime() - start;
+                expired(operation, "in-flight");
+                meterRegistry.timer("visa.deadline.wasted", Tags.of("operation", operation.id()))
+                        .record(wastedNanos, TimeUnit.NANOSECONDS);
+                return Mono.error(new VisaDeadlineExceededException(operation, "Cancelled " + operation
+                        + " at the caller's deadline after " + TimeUnit.NANOSECONDS.toMillis(wastedNanos) + "ms"));
+            }));
+        });
+    }
+
+    private void expired(VisaOperation operation, String stage) {
+        meterRegistry.counter("visa.deadline.expired", Tags.of("operation", operation.id(), "stage", stage))
+                .increment();
+    }
+}
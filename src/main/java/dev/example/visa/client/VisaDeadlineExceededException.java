@@ -0,0 +1,18 @@
+package dev.example.visa.client;
+
+import lombok.Getter;
+
+/**
+ * Signals that a Visa call was abandoned because the caller's {@link dev.example.visa.util.Deadline} passed.
+ * Nobody waits for the answer any more, so no reply should be sent for it.
+ */
+@Getter
+public class VisaDeadlineExceededException extends RuntimeException {
+
+    private final VisaOperation operation;
+
+    public VisaDeadlineExceededException(VisaOperation operation, String message) {
+        super(message);
+        this.operation = operation;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.example.visa.client;
+
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.client.exceptions.ReadTimeoutException;
+import io.micronaut.http.client.exceptions.ResponseClosedException;
+import io.micronaut.http.codec.CodecException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Decides which errors of a Visa call mean that Visa itself is failing or overloaded.
+ */
+public final class VisaErrorClassifier {
+
+    private VisaErrorClassifier() {
+    }
+
+    /**
+     * Throttling (429), server errors (5xx) and transport failures are failures of Visa. Transport failures are
+     * I/O errors such as refused, reset or closed connections and TLS errors, read and response timeouts, and
+     * connections closed before the response; the client may wrap them, so the whole cause chain is checked.
+     * Everything else is not: other HTTP errors are ordinary answers to a bad request, a response that cannot be
+     * decoded is a bug on our side, and calls shed with a {@link VisaCallRejectedException} never reached Visa.
+     */
+    public static boolean isVisaFailure(Throwable e) {
+        if (e instanceof HttpClientResponseException response) {
+            int status = statusCode(response);
+            return status == 429 || status >= 500;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof CodecException || cause instanceof VisaCallRejectedException) {
+                return false;
+            }
+            if (isTransportFailure(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransportFailure(Throwable e) {
+        // IOException covers ConnectException, ClosedChannelException, connection resets and SSLException
+        return e instanceof IOException
+                || e instanceof TimeoutException
+                || e instanceof io.netty.handler.timeout.TimeoutException
+                || e instanceof ReadTimeoutException
+                || e instanceof ResponseClosedException;
+    }
+
+    /**
+     * Returns the HTTP status code of the response, or 0 when it carries none.
+     */
+    public static int statusCode(HttpClientResponseException e) {
+        HttpStatus status = e.getStatus();
+        return status != null ? status.getCode() : 0;
+    }
+}
@@ -0,0 +1,43 @@
+package dev.example.visa.client;
+
+/**
+ * The Visa Click to Pay operations, named like their RabbitMQ request queues.
+ */
+public enum VisaOperation {
+
+    ENROLL_DATA("enrollData", false),
+    ENROLL_PAYMENT_INSTRUMENTS("enrollPaymentInstruments", false),
+    REQUEST_STATUS("requestStatus", true),
+    MANAGE_PAYMENT_INSTRUMENTS("managePaymentInstruments", false),
+    MANAGE_CONSUMER_INFORMATION("manageConsumerInformation", false),
+    DELETE_CONSUMER_INFORMATION("deleteConsumerInformation", false),
+    DELETE_PAYMENT_INSTRUMENTS("deletePaymentInstruments", false),
+    GET_DATA("getData", true);
+
+    private final String id;
+    private final boolean readOnly;
+
+    VisaOperation(String id, boolean readOnly) {
+        this.id = id;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Returns the name used in metric tags and configuration keys.
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Returns whether the operation only reads data at Visa and is therefore safe to repeat.
+     */
+    public boolean readOnly() {
+        return readOnly;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
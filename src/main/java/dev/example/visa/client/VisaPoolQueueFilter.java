@@ -0,0 +1,43 @@
+package dev.example.visa.client;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.order.Ordered;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.annotation.Filter;
+import io.micronaut.http.filter.ClientFilterChain;
+import io.micronaut.http.filter.HttpClientFilter;
+import jakarta.inject.Singleton;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+/**
+ * Counts every Visa request from the moment it is handed to the connection pool until it terminates, so the
+ * {@link VisaConnectionTracker} can report how many requests wait for a connection.
+ * Runs after all other filters, so requests still e.g. loading credentials are not counted as pending.
+ */
+@Singleton
+@Requires(notEnv = "test")
+@Filter("${visa.api.base-url}/**")
+public class VisaPoolQueueFilter implements HttpClientFilter {
+
+    private final VisaConnectionTracker connectionTracker;
+
+    public VisaPoolQueueFilter(VisaConnectionTracker connectionTracker) {
+        this.connectionTracker = connectionTracker;
+    }
+
+    @Override
+    public Publisher<? extends HttpResponse<?>> doFilter(MutableHttpRequest<?> request, ClientFilterChain chain) {
+        return Flux.defer(() -> {
+            connectionTracker.submit();
+            return Flux.from(chain.proceed(request))
+                    .doFinally(signal -> connectionTracker.complete());
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
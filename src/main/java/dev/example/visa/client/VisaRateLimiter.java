@@ -0,0 +1,243 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.env.Environment;
+import io.micronaut.core.naming.NameUtils;
+import io.micronaut.core.value.PropertyResolver;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the calls to Visa under its rate limits with token buckets: one per {@link VisaOperation} and one
+ * for all calls together.
+ * <p>
+ * The global bucket refills at {@code visa.api.rate-limit.rate} calls per second and holds up to {@code burst}
+ * tokens; the bucket of an operation uses {@code operation-rate} and {@code operation-burst}, which can be
+ * overridden per operation under {@code visa.api.rate-limit.operations.<operation>}, e.g.
+ * {@code operations.get-data.rate}. A call takes a token from both. When none is available it waits for the
+ * next one, at most {@code max-wait} and with at most {@code max-queued} calls waiting, and is rejected with a
+ * {@link VisaCallRejectedException} otherwise.
+ * <p>
+ * A 429 from Visa means its quota is lower than configured: the rate of the operation is cut by
+ * {@code backoff-ratio} and, when Visa sent a {@code Retry-After}, its bucket pauses until then. The rate
+ * then climbs back linearly to the configured one over {@code recovery}.
+ */
+@Slf4j
+@Singleton
+public class VisaRateLimiter {
+
+    private static final String REJECTION_REASON = "rate-limit";
+    private static final String OPERATIONS_PREFIX = "visa.api.rate-limit.operations.";
+    private static final double MIN_RATE_RATIO = 0.1;
+
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final int maxQueued;
+    private final double backoffRatio;
+    private final long recoveryNanos;
+    private final TokenBucket global;
+    private final Map<VisaOperation, TokenBucket> buckets = new EnumMap<>(VisaOperation.class);
+    private final AtomicInteger queued = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    @Inject
+    public VisaRateLimiter(@Value("${visa.api.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${visa.api.rate-limit.rate:100}") double rate,
+                           @Value("${visa.api.rate-limit.burst:20}") double burst,
+                           @Value("${visa.api.rate-limit.operation-rate:50}") double operationRate,
+                           @Value("${visa.api.rate-limit.operation-burst:10}") double operationBurst,
+                           @Value("${visa.api.rate-limit.max-wait:250ms}") Duration maxWait,
+                           @Value("${visa.api.rate-limit.max-queued:100}") int maxQueued,
+                           @Value("${visa.api.rate-limit.backoff-ratio:0.5}") double backoffRatio,
+                           @Value("${visa.api.rate-limit.recovery:30s}") Duration recovery,
+                           Environment environment,
+                           MeterRegistry meterRegistry) {
+        this(enabled, rate, burst, operationRate, operationBurst, maxWait, maxQueued, backoffRatio, recovery,
+                (PropertyResolver) environment, meterRegistry);
+    }
+
+    VisaRateLimiter(boolean enabled, double rate, double burst, double operationRate, double operationBurst,
+                    Duration maxWait, int maxQueued, double backoffRatio, Duration recovery,
+                    PropertyResolver properties, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxQueued = maxQueued;
+        this.backoffRatio = backoffRatio;
+        this.recoveryNanos = Math.max(1, recovery.toNanos());
+        this.meterRegistry = meterRegistry;
+        this.global = new TokenBucket(rate, burst);
+
+        meterRegistry.gauge("visa.ratelimit.rate", Tags.of("operation", "all"), global, this::rate);
+        meterRegistry.gauge("visa.ratelimit.queued", queued);
+        for (VisaOperation operation : VisaOperation.values()) {
+            String prefix = OPERATIONS_PREFIX + NameUtils.hyphenate(operation.id()) + ".";
+            TokenBucket bucket = new TokenBucket(
+                    properties.getProperty(prefix + "rate", Double.class, operationRate),
+                    properties.getProperty(prefix + "burst", Double.class, operationBurst));
+            buckets.put(operation, bucket);
+            meterRegistry.gauge("visa.ratelimit.rate", Tags.of("operation", operation.id()), bucket, this::rate);
+        }
+
+        if (enabled) {
+            log.info("Visa rate limit {}/s (burst {}), {}/s per operation unless overridden, waiting at most {}",
+                    rate, burst, operationRate, maxWait);
+        }
+    }
+
+    /**
+     * Runs the call once a token of the operation and a global one are available.
+     */
+    public <T> Mono<T> execute(VisaOperation operation, Supplier<? extends Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            long waitNanos = reserve(operation);
+            if (waitNanos < 0) {
+                return Mono.error(reject(operation, "no token within " + Duration.ofNanos(maxWaitNanos)));
+            }
+
+            Mono<T> limited = Mono.defer(call).doOnError(e -> onFailure(operation, e));
+            if (waitNanos == 0) {
+                return limited;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                refund(operation);
+                return Mono.error(reject(operation, "too many calls waiting"));
+            }
+            return Mono.delay(Duration.ofNanos(waitNanos))
+                    .doFinally(signal -> {
+                        queued.decrementAndGet();
+                        if (signal == SignalType.CANCEL) {
+                            refund(operation);
+                        }
+                    })
+                    .then(limited);
+        });
+    }
+
+    /**
+     * Returns the current rate of the operation in calls per second.
+     */
+    public double rate(VisaOperation operation) {
+        return rate(buckets.get(operation));
+    }
+
+    private synchronized double rate(TokenBucket bucket) {
+        bucket.refill(System.nanoTime());
+        return bucket.rate;
+    }
+
+    /**
+     * Takes a token from both buckets, returning how long the call has to wait for them,
+     * or -1 without taking any when that is longer than allowed.
+     */
+    private synchronized long reserve(VisaOperation operation) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(operation);
+        long waitNanos = Math.max(bucket.waitNanos(now), global.waitNanos(now));
+        if (waitNanos > maxWaitNanos) {
+            return -1;
+        }
+        bucket.tokens--;
+        global.tokens--;
+        return waitNanos;
+    }
+
+    private synchronized void refund(VisaOperation operation) {
+        buckets.get(operation).refund();
+        global.refund();
+    }
+
+    private void onFailure(VisaOperation operation, Throwable e) {
+        if (!(e instanceof HttpClientResponseException response) || VisaErrorClassifier.statusCode(response) != 429) {
+            return;
+        }
+        meterRegistry.counter("visa.ratelimit.throttled", Tags.of("operation", operation.id())).increment();
+        Optional<Duration> retryAfter = VisaRetryExecutor.retryAfter(e);
+        double rate = throttle(buckets.get(operation), retryAfter.map(Duration::toNanos).orElse(0L));
+        log.warn("Visa throttled {}, lowering its rate to {}/s{}", operation, String.format("%.1f", rate),
+                retryAfter.map(d -> " and pausing it for " + d.toMillis() + "ms").orElse(""));
+    }
+
+    private synchronized double throttle(TokenBucket bucket, long pauseNanos) {
+        long now = System.nanoTime();
+        bucket.refill(now);
+        bucket.rate = Math.max(bucket.configuredRate * MIN_RATE_RATIO, bucket.rate * backoffRatio);
+        bucket.tokens = Math.min(bucket.tokens, 0);
+        if (pauseNanos > 0 && now + pauseNanos - bucket.pausedUntilNanos > 0) {
+            bucket.pausedUntilNanos = now + pauseNanos;
+        }
+        return bucket.rate;
+    }
+
+    private VisaCallRejectedException reject(VisaOperation operation, String detail) {
+        meterRegistry.counter("visa.ratelimit.rejections", Tags.of("operation", operation.id())).increment();
+        return new VisaCallRejectedException(operation, REJECTION_REASON,
+                "Visa rate limit reached for " + operation + ": " + detail);
+    }
+
+    /**
+     * A token bucket whose tokens may go negative: every waiting call has already reserved its token, so the
+     * deficit tells how long the next call has to wait. Guarded by the limiter.
+     */
+    private final class TokenBucket {
+
+        private final double configuredRate;
+        private final double burst;
+        private double rate;
+        private double tokens;
+        private long refilledAtNanos;
+        private long pausedUntilNanos;
+
+        private TokenBucket(double rate, double burst) {
+            this.configuredRate = rate;
+            this.burst = Math.max(1, burst);
+            this.rate = rate;
+            this.tokens = this.burst;
+            this.refilledAtNanos = System.nanoTime();
+            this.pausedUntilNanos = refilledAtNanos;
+        }
+
+        private void refill(long now) {
+            long from = pausedUntilNanos - refilledAtNanos > 0 ? pausedUntilNanos : refilledAtNanos;
+            long elapsed = now - from;
+            if (elapsed <= 0) {
+                return;
+            }
+            if (rate < configuredRate) {
+                rate = Math.min(configuredRate, rate + configuredRate * elapsed / recoveryNanos);
+            }
+            tokens = Math.min(burst, tokens + rate * elapsed / TimeUnit.SECONDS.toNanos(1));
+            refilledAtNanos = now;
+        }
+
+        private long waitNanos(long now) {
+            refill(now);
+            long paused = Math.max(0, pausedUntilNanos - now);
+            if (tokens >= 1) {
+                return paused;
+            }
+            return paused + (long) ((1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1));
+        }
+
+        private void refund() {
+            tokens = Math.min(burst, tokens + 1);
+        }
+    }
+}
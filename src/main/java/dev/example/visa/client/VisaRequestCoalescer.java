@@ -0,0 +1,87 @@
+package dev.example.visa.client;
+
+import dev.example.visa.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent read-only Visa calls, so a polling storm on the same request costs one
+ * call to Visa: while a call for an operation and its normalized parameters is in flight, every further call
+ * for them shares its result instead of going out. Results are never kept beyond the call.
+ * <p>
+ * The shared call does not run under the {@link dev.example.visa.util.Deadline} of the caller that started it:
+ * each waiter keeps its own deadline, the shared call goes on for the others when one of them gives up, and it
+ * is cancelled once the last waiter left.
+ * {@code visa.coalescing.requests} counts the calls asked for, {@code visa.coalescing.outbound} those that went
+ * out, and {@code visa.coalescing.dedup-ratio} is the share of calls saved.
+ */
+@Singleton
+public class VisaRequestCoalescer {
+
+    private final boolean enabled;
+    private final SingleFlight<Key, Object> flights = new SingleFlight<>();
+    private final Map<VisaOperation, Stats> stats = new EnumMap<>(VisaOperation.class);
+
+    public VisaRequestCoalescer(@Value("${visa.api.coalescing.enabled:true}") boolean enabled,
+                                MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+
+        for (VisaOperation operation : VisaOperation.values()) {
+            if (!operation.readOnly()) {
+                continue;
+            }
+            Tags tags = Tags.of("operation", operation.id());
+            Stats operationStats = new Stats(meterRegistry.counter("visa.coalescing.requests", tags),
+                    meterRegistry.counter("visa.coalescing.outbound", tags));
+            stats.put(operation, operationStats);
+            meterRegistry.gauge("visa.coalescing.dedup-ratio", tags, operationStats, Stats::dedupRatio);
+        }
+    }
+
+    /**
+     * Runs the call, or joins the one in flight for the same operation and parameters. Calls of operations
+     * that change data, and calls without parameters to compare, always go out.
+     *
+     * @param parameters the normalized parameters of the call, compared with {@code equals}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(VisaOperation operation, Object parameters, Supplier<? extends Mono<T>> call) {
+        Stats operationStats = stats.get(operation);
+        if (!enabled || operationStats == null || parameters == null) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            operationStats.requests.increment();
+            return flights.execute(new Key(operation, parameters), () -> {
+                operationStats.outbound.increment();
+                return Mono.defer(call).cast(Object.class);
+            }).map(value -> (T) value);
+        });
+    }
+
+    /**
+     * Returns the number of coalesced calls currently in flight.
+     */
+    public int inFlightCount() {
+        return flights.inFlightCount();
+    }
+
+    private record Key(VisaOperation operation, Object parameters) {
+    }
+
+    private record Stats(Counter requests, Counter outbound) {
+
+        private double dedupRatio() {
+            double total = requests.count();
+            return total == 0 ? 0 : 1 - outbound.count() / total;
+        }
+    }
+}
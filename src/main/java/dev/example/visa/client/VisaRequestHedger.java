@@ -0,0 +1,187 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Hedges read-only Visa calls to cut tail latency: when the first attempt has not answered within
+ * {@code visa.api.hedging.percentile} of the recent latency of the operation, a second identical call is
+ * sent and whichever answers first wins; the other one is cancelled.
+ * <p>
+ * Hedging is opt-in ({@code visa.api.hedging.enabled}) and never applies to operations that change data.
+ * It starts once {@code min-samples} latencies were observed, never fires earlier than {@code min-delay}, and
+ * hedges draw from a budget: every call deposits {@code budget.ratio} tokens up to {@code budget.max-tokens},
+ * every hedge withdraws one. {@code visa.hedge.calls}, {@code visa.hedge.sent} and {@code visa.hedge.wins}
+ * give the hedge rate and how often the hedge beat the first attempt.
+ * <p>
+ * Every call adds one latency to the window, measured from the start of the call to the answer of whichever
+ * attempt won, so a winning hedge still counts the delay it waited. A call cancelled before any answer adds the
+ * time it ran as a lower bound. Taking only the hedge's own latency would shrink the percentile and make the
+ * hedges fire ever earlier.
+ */
+@Slf4j
+@Singleton
+public class VisaRequestHedger {
+
+    private static final int RECOMPUTE_EVERY = 50;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final int minSamples;
+    private final double budgetRatio;
+    private final double budgetMaxTokens;
+    private final MeterRegistry meterRegistry;
+    private final Map<VisaOperation, LatencyWindow> latencies = new EnumMap<>(VisaOperation.class);
+
+    private double budgetTokens;
+
+    public VisaRequestHedger(@Value("${visa.api.hedging.enabled:false}") boolean enabled,
+                             @Value("${visa.api.hedging.percentile:0.95}") double percentile,
+                             @Value("${visa.api.hedging.min-delay:50ms}") Duration minDelay,
+                             @Value("${visa.api.hedging.window-size:1000}") int windowSize,
+                             @Value("${visa.api.hedging.min-samples:100}") int minSamples,
+                             @Value("${visa.api.hedging.budget.ratio:0.05}") double budgetRatio,
+                             @Value("${visa.api.hedging.budget.max-tokens:10}") double budgetMaxTokens,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.minSamples = Math.min(minSamples, windowSize);
+        this.budgetRatio = budgetRatio;
+        this.budgetMaxTokens = budgetMaxTokens;
+        this.budgetTokens = budgetMaxTokens;
+        this.meterRegistry = meterRegistry;
+
+        for (VisaOperation operation : VisaOperation.values()) {
+            if (operation.readOnly()) {
+                latencies.put(operation, new LatencyWindow(windowSize));
+            }
+        }
+        if (enabled) {
+            log.info("Hedging read-only Visa calls after p{} latency, at most {}% extra calls",
+                    Math.round(percentile * 100), Math.round(budgetRatio * 100));
+        }
+    }
+
+    /**
+     * Runs the call, hedging it when the operation is read-only and hedging is enabled.
+     */
+    public <T> Mono<T> execute(VisaOperation operation, Supplier<? extends Mono<T>> call) {
+        LatencyWindow window = latencies.get(operation);
+        if (!enabled || window == null) {
+            return Mono.defer(call);
+        }
+
+        return Mono.defer(() -> {
+            meterRegistry.counter("visa.hedge.calls", Tags.of("operation", operation.id())).increment();
+            deposit();
+            long start = System.nanoTime();
+            long delayNanos = window.hedgeDelay();
+            Mono<T> attempts = delayNanos < 0 ? Mono.defer(call) : hedged(operation, call, delayNanos);
+            // Failures are not sampled, they may be much faster than answers
+            return attempts.doFinally(signal -> {
+                if (signal != SignalType.ON_ERROR) {
+                    window.record(System.nanoTime() - start);
+                }
+            });
+        });
+    }
+
+    private <T> Mono<T> hedged(VisaOperation operation, Supplier<? extends Mono<T>> call, long delayNanos) {
+        // A failed hedge must not fail the call, the first attempt may still answer
+        Mono<T> hedge = Mono.delay(Duration.ofNanos(delayNanos))
+                .then(Mono.defer(() -> {
+                    if (!withdraw()) {
+                        return Mono.<T>never();
+                    }
+                    meterRegistry.counter("visa.hedge.sent", Tags.of("operation", operation.id())).increment();
+                    return Mono.defer(call)
+                            .doOnSuccess(value -> meterRegistry.counter("visa.hedge.wins",
+                                    Tags.of("operation", operation.id())).increment());
+                }))
+                .onErrorResume(e -> Mono.never());
+
+        return Mono.firstWithSignal(Mono.defer(call), hedge);
+    }
+
+    /**
+     * Returns how many latencies of the operation are in its window.
+     */
+    int observedLatencies(VisaOperation operation) {
+        LatencyWindow window = latencies.get(operation);
+        return window == null ? 0 : window.count();
+    }
+
+    /**
+     * Returns the current hedge delay of the operation, or -1 while too few latencies were observed.
+     */
+    long hedgeDelayNanos(VisaOperation operation) {
+        LatencyWindow window = latencies.get(operation);
+        return window == null ? -1 : window.hedgeDelay();
+    }
+
+    private synchronized void deposit() {
+        budgetTokens = Math.min(budgetMaxTokens, budgetTokens + budgetRatio);
+    }
+
+    private synchronized boolean withdraw() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens--;
+        return true;
+    }
+
+    /**
+     * Recent latencies of one operation. The hedge delay is recomputed every few samples instead of
+     * sorting the window on every call.
+     */
+    private final class LatencyWindow {
+
+        private final long[] samples;
+        private int count;
+        private int next;
+        private int sinceRecompute;
+        private long hedgeDelayNanos = -1;
+
+        private LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        private synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            if (count >= minSamples && (hedgeDelayNanos < 0 || ++sinceRecompute >= RECOMPUTE_EVERY)) {
+                sinceRecompute = 0;
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                long value = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+                hedgeDelayNanos = Math.max(minDelayNanos, value);
+            }
+        }
+
+        private synchronized int count() {
+            return count;
+        }
+
+        /**
+         * Returns the delay after which to hedge, or -1 while too few latencies were observed.
+         */
+        private synchronized long hedgeDelay() {
+            return hedgeDelayNanos;
+        }
+    }
+}
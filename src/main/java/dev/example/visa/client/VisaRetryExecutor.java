@@ -0,0 +1,188 @@
+package dev.example.visa.client;
+
+import dev.example.visa.util.Deadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retries failed Visa calls with exponential backoff and full jitter.
+ * <p>
+ * Read-only operations are retried on every failure of Visa as classified by {@link VisaErrorClassifier}.
+ * Operations that change data are only retried when Visa certainly did not process the request: the
+ * connection could not be established, or Visa answered 429 or 503. The n-th retry waits a random time between
+ * zero and {@code visa.api.retry.delay * multiplier^(n-1)}, capped at {@code visa.api.retry.max-delay}, so
+ * replicas hitting the same brownout do not retry in synchronized waves. A {@code Retry-After} header raises
+ * the wait to what Visa asked for; when it asks for longer than {@code max-delay} the call is not retried.
+ * Neither is it when the wait would outlast the caller's {@link Deadline}.
+ * <p>
+ * Retries draw from a service-wide budget: every call deposits {@code visa.api.retry.budget.ratio} tokens up
+ * to {@code budget.max-tokens} and every retry withdraws one, so retries stay below that share of the traffic
+ * when Visa fails broadly.
+ */
+@Slf4j
+@Singleton
+public class VisaRetryExecutor {
+
+    private final int maxAttempts;
+    private final Duration delay;
+    private final double multiplier;
+    private final Duration maxDelay;
+    private final double budgetRatio;
+    private final double budgetMaxTokens;
+    private final MeterRegistry meterRegistry;
+
+    private double budgetTokens;
+
+    public VisaRetryExecutor(@Value("${visa.api.retry.max-attempts:3}") int maxAttempts,
+                             @Value("${visa.api.retry.delay:1s}") Duration delay,
+                             @Value("${visa.api.retry.multiplier:2}") double multiplier,
+                             @Value("${visa.api.retry.max-delay:10s}") Duration maxDelay,
+                             @Value("${visa.api.retry.budget.ratio:0.1}") double budgetRatio,
+                             @Value("${visa.api.retry.budget.max-tokens:10}") double budgetMaxTokens,
+                             MeterRegistry meterRegistry) {
+        this.maxAttempts = maxAttempts;
+        this.delay = delay;
+        this.multiplier = multiplier;
+        this.maxDelay = maxDelay;
+        this.budgetRatio = budgetRatio;
+        this.budgetMaxTokens = budgetMaxTokens;
+        this.budgetTokens = budgetMaxTokens;
+        this.meterRegistry = meterRegistry;
+
+        meterRegistry.gauge("visa.retry.budget.tokens", this, VisaRetryExecutor::budgetTokens);
+    }
+
+    /**
+     * Runs the call and retries it according to the policy of the operation.
+     */
+    public <T> Mono<T> execute(VisaOperation operation, Supplier<? extends Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            deposit();
+            Optional<Deadline> deadline = Deadline.current(context);
+            return Mono.defer(call).retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                Throwable failure = signal.failure();
+                Optional<Duration> backoff = nextDelay(operation, failure, signal.totalRetries(), deadline);
+                if (backoff.isEmpty()) {
+                    return Mono.<Long>error(failure);
+                }
+                log.debug("Retrying {} in {}ms after {}", operation, backoff.get().toMillis(), failure.toString());
+                meterRegistry.counter("visa.retry.retries", Tags.of("operation", operation.id())).increment();
+                return Mono.delay(backoff.get());
+            })));
+        });
+    }
+
+    /**
+     * Returns the tokens currently left in the retry budget.
+     */
+    public synchronized double budgetTokens() {
+        return budgetTokens;
+    }
+
+    private Optional<Duration> nextDelay(VisaOperation operation, Throwable failure, long retries,
+                                         Optional<Deadline> deadline) {
+        if (!isRetryable(operation, failure)) {
+            return Optional.empty();
+        }
+        if (retries + 1 >= maxAttempts) {
+            skipped(operation, "attempts-exhausted");
+            return Optional.empty();
+        }
+
+        double ceiling = Math.min(maxDelay.toNanos(), delay.toNanos() * Math.pow(multiplier, retries));
+        Duration backoff = Duration.ofNanos((long) (ThreadLocalRandom.current().nextDouble() * ceiling));
+        Optional<Duration> retryAfter = retryAfter(failure);
+        if (retryAfter.isPresent()) {
+            if (retryAfter.get().compareTo(maxDelay) > 0) {
+                skipped(operation, "retry-after-too-long");
+                return Optional.empty();
+            }
+            backoff = backoff.compareTo(retryAfter.get()) < 0 ? retryAfter.get() : backoff;
+        }
+        if (deadline.isPresent() && backoff.compareTo(deadline.get().remaining()) >= 0) {
+            skipped(operation, "deadline");
+            return Optional.empty();
+        }
+
+        if (!withdraw()) {
+            skipped(operation, "budget-exhausted");
+            return Optional.empty();
+        }
+        return Optional.of(backoff);
+    }
+
+    private static boolean isRetryable(VisaOperation operation, Throwable failure) {
+        if (!VisaErrorClassifier.isVisaFailure(failure)) {
+            return false;
+        }
+        if (operation.readOnly()) {
+            return true;
+        }
+        if (failure instanceof HttpClientResponseException response) {
+            int status = VisaErrorClassifier.statusCode(response);
+            return status == 429 || status == 503;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads a {@code Retry-After} header given either in seconds or as an HTTP date.
+     */
+    static Optional<Duration> retryAfter(Throwable failure) {
+        if (!(failure instanceof HttpClientResponseException response)
+                || response.getResponse() == null || response.getResponse().getHeaders() == null) {
+            return Optional.empty();
+        }
+        return response.getResponse().getHeaders().get(HttpHeaders.RETRY_AFTER, String.class).flatMap(value -> {
+            String trimmed = value.trim();
+            try {
+                return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed))));
+            } catch (NumberFormatException e) {
+                try {
+                    Duration until = Duration.between(ZonedDateTime.now(),
+                            ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME));
+                    return Optional.of(until.isNegative() ? Duration.ZERO : until);
+                } catch (DateTimeParseException ignored) {
+                    return Optional.empty();
+                }
+            }
+        });
+    }
+
+    private synchronized void deposit() {
+        budgetTokens = Math.min(budgetMaxTokens, budgetTokens + budgetRatio);
+    }
+
+    private synchronized boolean withdraw() {
+        if (budgetTokens < 1) {
+            return false;
+        }
+        budgetTokens--;
+        return true;
+    }
+
+    private void skipped(VisaOperation operation, String reason) {
+        meterRegistry.counter("visa.retry.skipped", Tags.of("operation", operation.id(), "reason", reason)).increment();
+    }
+}
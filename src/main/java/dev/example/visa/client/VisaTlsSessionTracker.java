@@ -0,0 +1,179 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.BeanCreatedEvent;
+import io.micronaut.context.event.BeanCreatedEventListener;
+import io.micronaut.http.client.netty.NettyClientCustomizer;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.ssl.ReferenceCountedOpenSslEngine;
+import io.netty.handler.ssl.SslHandler;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instruments the TLS handshakes of the Visa client and gives access to its session cache.
+ * <p>
+ * Sessions negotiated with Visa (session IDs for TLS 1.2, tickets for TLS 1.3) are kept in the client
+ * session cache configured by {@link dev.example.visa.security.InMemoryClientSslBuilder}, so new pooled
+ * connections can resume a session instead of paying for a full mutual TLS handshake. Every handshake is
+ * timed from channel activation until it completes and tagged with whether the session was resumed.
+ */
+@Slf4j
+@Singleton
+@Requires(notEnv = "test")
+public class VisaTlsSessionTracker implements BeanCreatedEventListener<NettyClientCustomizer.Registry> {
+
+    private static final String HANDLER_NAME = "visa-tls-handshake-timer";
+
+    private final String visaHost;
+    private final MeterRegistry meterRegistry;
+    private final Counter fullHandshakes;
+    private final Counter resumedHandshakes;
+    private final Counter failedHandshakes;
+    private final ConcurrentMap<String, Timer> handshakeTimers = new ConcurrentHashMap<>();
+
+    private volatile SSLSessionContext sessionContext;
+
+    public VisaTlsSessionTracker(@Value("${visa.api.base-url}") String baseUrl, MeterRegistry meterRegistry) {
+        this.visaHost = URI.create(baseUrl).getHost();
+        this.meterRegistry = meterRegistry;
+        this.fullHandshakes = meterRegistry.counter("visa.tls.handshakes", "resumed", "false");
+        this.resumedHandshakes = meterRegistry.counter("visa.tls.handshakes", "resumed", "true");
+        this.failedHandshakes = meterRegistry.counter("visa.tls.handshake.failures");
+        meterRegistry.gauge("visa.tls.handshake.resumption.ratio", this, VisaTlsSessionTracker::resumptionRatio);
+        meterRegistry.gauge("visa.tls.session-cache.sessions", this, VisaTlsSessionTracker::cachedSessions);
+    }
+
+    @Override
+    public NettyClientCustomizer.Registry onCreated(BeanCreatedEvent<NettyClientCustomizer.Registry> event) {
+        NettyClientCustomizer.Registry registry = event.getBean();
+        registry.register(new HandshakeCustomizer(null));
+        return registry;
+    }
+
+    /**
+     * Drops every cached session, so the next connections perform a full handshake.
+     */
+    public void invalidateSessions() {
+        SSLSessionContext context = sessionContext;
+        if (context == null) {
+            return;
+        }
+        int invalidated = 0;
+        for (byte[] id : Collections.list(context.getIds())) {
+            SSLSession session = context.getSession(id);
+            if (session != null) {
+                session.invalidate();
+                invalidated++;
+            }
+        }
+        log.info("Invalidated {} cached Visa TLS session(s)", invalidated);
+    }
+
+    boolean isVisaConnection(SslHandler ssl) {
+        return ssl != null && visaHost != null && visaHost.equalsIgnoreCase(ssl.engine().getPeerHost());
+    }
+
+    private void onHandshakeComplete(SslHandler ssl, long startNanos, long startMillis) {
+        SSLEngine engine = ssl.engine();
+        SSLSession session = engine.getSession();
+        if (sessionContext == null) {
+            sessionContext = session.getSessionContext();
+        }
+
+        boolean resumed = isResumed(engine, session, startMillis);
+        (resumed ? resumedHandshakes : fullHandshakes).increment();
+        handshakeTimers.computeIfAbsent(resumed + ":" + session.getProtocol(),
+                        key -> handshakeTimer(resumed, session.getProtocol()))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer handshakeTimer(boolean resumed, String protocol) {
+        return Timer.builder("visa.tls.handshake")
+                .description("Duration of TLS handshakes with the Visa API")
+                .tag("resumed", String.valueOf(resumed))
+                .tag("protocol", protocol)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * The OpenSSL engine reports reuse directly. For the JDK engine a resumed session keeps the creation
+     * time of the handshake that established it, which lies before the start of this handshake.
+     */
+    static boolean isResumed(SSLEngine engine, SSLSession session, long startMillis) {
+        if (engine instanceof ReferenceCountedOpenSslEngine openSsl) {
+            return openSsl.isSessionReused();
+        }
+        return session.getCreationTime() < startMillis;
+    }
+
+    private double resumptionRatio() {
+        double resumed = resumedHandshakes.count();
+        double total = resumed + fullHandshakes.count();
+        return total == 0 ? Double.NaN : resumed / total;
+    }
+
+    private double cachedSessions() {
+        SSLSessionContext context = sessionContext;
+        return context == null ? Double.NaN : Collections.list(context.getIds()).size();
+    }
+
+    private final class HandshakeCustomizer implements NettyClientCustomizer {
+
+        private final Channel channel;
+
+        private HandshakeCustomizer(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public NettyClientCustomizer specializeForChannel(Channel channel, ChannelRole role) {
+            return new HandshakeCustomizer(role == ChannelRole.CONNECTION ? channel : null);
+        }
+
+        @Override
+        public void onInitialPipelineBuilt() {
+            if (channel == null) {
+                return;
+            }
+            SslHandler ssl = channel.pipeline().get(SslHandler.class);
+            if (!isVisaConnection(ssl)) {
+                return;
+            }
+
+            // Placed before the SslHandler, so the clock starts when the handshake is kicked off
+            channel.pipeline().addFirst(HANDLER_NAME, new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelActive(ChannelHandlerContext ctx) throws Exception {
+                    long startNanos = System.nanoTime();
+                    long startMillis = System.currentTimeMillis();
+                    ssl.handshakeFuture().addListener(future -> {
+                        if (future.isSuccess()) {
+                            onHandshakeComplete(ssl, startNanos, startMillis);
+                        } else {
+                            failedHandshakes.increment();
+                        }
+                    });
+                    ctx.pipeline().remove(this);
+                    super.channelActive(ctx);
+                }
+            });
+        }
+    }
+}
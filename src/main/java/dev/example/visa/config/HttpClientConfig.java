@@ -1,5 +1,6 @@
 package dev.example.visa.config;
 
+import dev.example.visa.security.VisaSslConfiguration;
 import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Value;
@@ -7,11 +8,16 @@ import io.micronaut.http.client.DefaultHttpClientConfiguration;
 import io.micronaut.http.client.HttpClientConfiguration;
 import io.micronaut.http.ssl.ClientAuthentication;
 import io.micronaut.http.ssl.SslConfiguration;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslProvider;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 @Slf4j
 @Factory
@@ -29,42 +35,108 @@ public class HttpClientConfig {
     @Value("${visa.api.max-connections:20}")
     private int maxConnections;
 
-    @Value("${visa.security.ssl.keystore-path}")
-    private String keystorePath;
+    @Value("${visa.api.max-connections-per-route:10}")
+    private int maxConnectionsPerRoute;
 
-    @Value("${visa.security.ssl.keystore-password}")
-    private String keystorePassword;
+    @Value("${visa.api.pool.max-pending-acquires:200}")
+    private int maxPendingAcquires;
 
-    @Value("${visa.security.ssl.key-password}")
-    private String keyPassword;
+    @Value("${visa.api.pool.acquire-timeout:5s}")
+    private Duration acquireTimeout;
 
-    @Value("${visa.security.ssl.truststore-path}")
-    private String truststorePath;
+    @Value("${visa.api.pool.idle-timeout:60s}")
+    private Duration idleTimeout;
 
-    @Value("${visa.security.ssl.truststore-password}")
-    private String truststorePassword;
+    @Value("${visa.api.pool.max-lifetime:10m}")
+    private Duration maxLifetime;
+
+    @Value("${visa.api.http2.enabled:false}")
+    private boolean http2Enabled;
+
+    @Value("${visa.api.http2.max-connections:2}")
+    private int http2MaxConnections;
+
+    @Value("${visa.api.http2.max-concurrent-streams:100}")
+    private int http2MaxConcurrentStreams;
+
+    @Value("${visa.api.tls.provider:jdk}")
+    private TlsProviderMode tlsProvider;
 
     @Bean
     @Named("visaHttpClient")
     @Singleton
-    public HttpClientConfiguration httpClientConfiguration() {
-        DefaultHttpClientConfiguration configuration = new DefaultHttpClientConfiguration();
+    public VisaHttpClientConfiguration httpClientConfiguration(DefaultHttpClientConfiguration defaults) {
+        VisaHttpClientConfiguration configuration = new VisaHttpClientConfiguration(defaults, connectionPool());
 
         configuration.setConnectTimeout(connectionTimeout);
         configuration.setReadTimeout(readTimeout);
         configuration.setMaxContentLength(1024 * 1024);
-
-        SslConfiguration ssl = configuration.getSslConfiguration();
-
-        ssl.setKeyStore(new SslConfiguration.KeyStoreConfiguration());
-        ssl.getKeyStore().setPath(keystorePath);
-        ssl.getKeyStore().setPassword(keystorePassword);
-        ssl.getKeyStore().setType("JKS");
-        ssl.setTrustStore(new SslConfiguration.TrustStoreConfiguration());
-        ssl.getTrustStore().setPath(truststorePath);
-        ssl.getTrustStore().setPassword(truststorePassword);
-        ssl.getTrustStore().setType("JKS");
+        // Idle connections are evicted and every connection is replaced after its max lifetime
+        configuration.setConnectionPoolIdleTimeout(idleTimeout);
+        configuration.setConnectTtl(maxLifetime);
+        // With HTTP/2 enabled ALPN offers h2 first; servers that do not support it negotiate HTTP/1.1
+        configuration.setAlpnModes(http2Enabled
+                ? List.of(ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1)
+                : List.of(ApplicationProtocolNames.HTTP_1_1));
+
+        // Key and trust material is supplied in memory by the CertificateManager
+        SslConfiguration ssl = new VisaSslConfiguration();
         ssl.setClientAuthentication(ClientAuthentication.NEED);
+        SslProvider provider = resolveTlsProvider(tlsProvider, HttpClientConfig::isOpenSslUsable);
+        ssl.setPreferOpenssl(provider == SslProvider.OPENSSL);
+        configuration.setSslConfiguration(ssl);
         return configuration;
     }
+
+    /**
+     * Builds the pool of the Visa client. The client only talks to a single route, so the HTTP/1.1 pool size
+     * is the smaller of the overall and the per-route connection limit. HTTP/2 connections are limited
+     * separately, since each of them multiplexes up to the configured number of concurrent streams.
+     */
+    private HttpClientConfiguration.ConnectionPoolConfiguration connectionPool() {
+        int poolSize = Math.min(maxConnections, maxConnectionsPerRoute);
+        HttpClientConfiguration.ConnectionPoolConfiguration pool = new HttpClientConfiguration.ConnectionPoolConfiguration();
+        pool.setEnabled(true);
+        pool.setMaxConcurrentHttp1Connections(poolSize);
+        pool.setMaxPendingAcquires(maxPendingAcquires);
+        pool.setAcquireTimeout(acquireTimeout);
+        if (http2Enabled) {
+            pool.setMaxConcurrentHttp2Connections(http2MaxConnections);
+            pool.setMaxConcurrentRequestsPerHttp2Connection(http2MaxConcurrentStreams);
+            log.info("Visa client negotiates HTTP/2 with up to {} connections and {} streams per connection",
+                    http2MaxConnections, http2MaxConcurrentStreams);
+        }
+
+        log.info("Visa connection pool: {} connections, {} pending acquires, acquire timeout {}, "
+                        + "idle timeout {}, max lifetime {}",
+                poolSize, maxPendingAcquires, acquireTimeout, idleTimeout, maxLifetime);
+        return pool;
+    }
+
+    /**
+     * Resolves the configured provider mode, falling back to the JDK engine when OpenSSL cannot be loaded.
+     */
+    static SslProvider resolveTlsProvider(TlsProviderMode tlsProvider, BooleanSupplier openSslUsable) {
+        if (tlsProvider == TlsProviderMode.JDK) {
+            log.info("Visa client TLS provider: JDK");
+            return SslProvider.JDK;
+        }
+
+        if (openSslUsable.getAsBoolean()) {
+            log.info("Visa client TLS provider: OpenSSL ({})", OpenSsl.versionString());
+            return SslProvider.OPENSSL;
+        }
+
+        if (tlsProvider == TlsProviderMode.OPENSSL) {
+            log.warn("OpenSSL TLS provider requested but not available, falling back to JDK",
+                    OpenSsl.unavailabilityCause());
+        } else {
+            log.info("OpenSSL is not available, Visa client TLS provider: JDK");
+        }
+        return SslProvider.JDK;
+    }
+
+    private static boolean isOpenSslUsable() {
+        return OpenSsl.isAvailable() && SslProvider.isAlpnSupported(SslProvider.OPENSSL);
+    }
 }
@@ -0,0 +1,83 @@
+package dev.example.visa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.runtime.server.event.ServerStartupEvent;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Records how long the individual startup phases take, such as the Vault login, the initial
+ * secret load and the certificate bootstrap. Each phase is exported as the {@code app.startup.phase}
+ * timer and logged together with its completion time relative to JVM start.
+ */
+@Slf4j
+@Singleton
+public class StartupTimingRecorder {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Duration> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StartupTimingRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records a phase that started at the given {@link System#nanoTime()} and ended now.
+     */
+    public void record(String phase, long startNanos) {
+        Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+        phases.put(phase, duration);
+        timers.computeIfAbsent(phase, this::phaseTimer).record(duration);
+        log.info("Startup phase {} took {}ms (completed {}ms after JVM start)",
+                phase, duration.toMillis(), ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder("app.startup.phase")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Times the given publisher as a startup phase, from subscription until it completes successfully.
+     */
+    public <T> Mono<T> time(String phase, Mono<T> source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return source.doOnSuccess(value -> record(phase, start));
+        });
+    }
+
+    /**
+     * Returns the phases recorded so far in completion order.
+     */
+    public Map<String, Duration> phases() {
+        synchronized (phases) {
+            return Map.copyOf(new LinkedHashMap<>(phases));
+        }
+    }
+
+    @EventListener
+    public void onServerStartup(ServerStartupEvent event) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        String breakdown;
+        synchronized (phases) {
+            breakdown = phases.entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue().toMillis() + "ms")
+                    .collect(Collectors.joining(", "));
+        }
+        log.info("Server started {}ms after JVM start, phases completed so far: [{}]", uptime, breakdown);
+    }
+}
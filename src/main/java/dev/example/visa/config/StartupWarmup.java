@@ -0,0 +1,250 @@
+package dev.example.visa.config;
+
+import dev.example.visa.dto.EnrollDataRequestDto;
+import dev.example.visa.dto.GetDataRequestDto;
+import dev.example.visa.mappers.VisaMapper;
+import dev.example.visa.model.GetDataResponse;
+import dev.example.visa.model.RequestIdResponse;
+import dev.example.visa.model.RequestStatusResponse;
+import dev.example.visa.security.CertificateManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.BeanProvider;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.core.type.Argument;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.json.JsonMapper;
+import io.micronaut.runtime.event.annotation.EventListener;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the application up before it takes traffic, so the first burst of RabbitMQ messages after a
+ * deploy does not pay for TCP connects, mTLS handshakes and cold JIT code all at once.
+ * <p>
+ * On startup it waits for the TLS material, sends {@code visa.warmup.requests} concurrent {@code HEAD} requests
+ * to {@code visa.warmup.path} and runs {@code visa.warmup.serde-iterations} synthetic mapper and JSON passes over
+ * the request and response types. The path has no default: without it no request is sent to the Visa API.
+ * Warm-up requests carry {@link #WARMUP_ATTRIBUTE}, so they go out without credentials. Over HTTP/1.1 every
+ * concurrent request opens its own pooled connection; over HTTP/2 the requests are multiplexed over at most
+ * {@code visa.api.http2.max-connections} connections. Until it
+ * completes the readiness check reports DOWN and the message handlers hold incoming messages back through
+ * {@link #gate(Mono)}. The warm-up is bounded by {@code visa.warmup.timeout}; when it fails or times out
+ * the application becomes ready regardless.
+ */
+@Slf4j
+@Singleton
+public class StartupWarmup {
+
+    /**
+     * Outcome of the warm-up.
+     *
+     * @param duration  how long the warm-up took
+     * @param requests  how many warm-up requests reached the Visa API
+     * @param completed false when the warm-up failed or timed out
+     */
+    public record Result(Duration duration, int requests, boolean completed) {
+    }
+
+    /**
+     * Request attribute marking warm-up requests, which the authentication filter passes through unsigned.
+     */
+    public static final String WARMUP_ATTRIBUTE = "visa.warmup";
+
+    private static final byte[] REQUEST_ID_RESPONSE = """
+            {"requestTraceId":"warmup"}""".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] REQUEST_STATUS_RESPONSE = """
+            {"status":"COMPLETED","details":[{"intent":{"type":"PRODUCT_CODE","value":"CLICK_TO_PAY"},\
+            "status":"COMPLETED","errorDetails":[]}],"consumerInformation":{"externalConsumerID":"warmup"}}"""
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] GET_DATA_RESPONSE = """
+            {"data":[{"intent":{"type":"PRODUCT_CODE","value":"CLICK_TO_PAY"},\
+            "paymentInstruments":[{"type":"CARD","accountNumber":"4111111111111111","nameOnCard":"Warm Up"}],\
+            "consumerInformation":{"externalConsumerID":"warmup","firstName":"Warm","lastName":"Up",\
+            "emails":["warmup@example.com"],"phones":["15550000000"],"countryCode":"US","locale":"en_US"}}]}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final boolean enabled;
+    private final int requests;
+    private final int serdeIterations;
+    private final String warmupPath;
+    private final Duration timeout;
+    private final HttpClient visaHttpClient;
+    private final VisaMapper visaMapper;
+    private final JsonMapper jsonMapper;
+    private final BeanProvider<CertificateManager> certificateManager;
+    private final StartupTimingRecorder startupTiming;
+    private final AtomicInteger warmedRequests = new AtomicInteger();
+    private final Mono<Result> warmup;
+
+    private volatile Result result;
+
+    public StartupWarmup(@Client(value = "${visa.api.base-url}", configuration = VisaHttpClientConfiguration.class)
+                         HttpClient visaHttpClient,
+                         VisaMapper visaMapper,
+                         JsonMapper jsonMapper,
+                         BeanProvider<CertificateManager> certificateManager,
+                         StartupTimingRecorder startupTiming,
+                         MeterRegistry meterRegistry,
+                         @Value("${visa.warmup.enabled:true}") boolean enabled,
+                         @Value("${visa.warmup.requests:8}") int requests,
+                         @Value("${visa.warmup.serde-iterations:2000}") int serdeIterations,
+                         @Value("${visa.warmup.path:}") String warmupPath,
+                         @Value("${visa.warmup.timeout:60s}") Duration timeout) {
+        this.enabled = enabled;
+        this.requests = requests;
+        this.serdeIterations = serdeIterations;
+        this.warmupPath = warmupPath;
+        this.timeout = timeout;
+        this.visaHttpClient = visaHttpClient;
+        this.visaMapper = visaMapper;
+        this.jsonMapper = jsonMapper;
+        this.certificateManager = certificateManager;
+        this.startupTiming = startupTiming;
+        this.warmup = Mono.defer(this::runWarmup).cache();
+        meterRegistry.gauge("visa.warmup.requests", warmedRequests);
+        meterRegistry.gauge("visa.warmup.ready", this, self -> self.result == null ? 0 : 1);
+    }
+
+    @EventListener
+    public void onStartup(StartupEvent event) {
+        warmup.subscribe(done -> log.info("Warm-up finished in {}ms with {} request(s), completed: {}",
+                done.duration().toMillis(), done.requests(), done.completed()));
+    }
+
+    /**
+     * Completes once the warm-up has finished, successfully or not.
+     */
+    public Mono<Result> ready() {
+        return warmup;
+    }
+
+    /**
+     * Returns the warm-up outcome, or empty while it is still running.
+     */
+    public Optional<Result> result() {
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Defers the given work until the warm-up has finished. Work arriving afterwards runs without delay.
+     */
+    public <T> Mono<T> gate(Mono<T> work) {
+        return result != null ? work : warmup.then(work);
+    }
+
+    private Mono<Result> runWarmup() {
+        if (!enabled) {
+            log.info("Warm-up is disabled");
+            return Mono.fromSupplier(() -> complete(Duration.ZERO, true));
+        }
+
+        long start = System.nanoTime();
+        return startupTiming.time("warmup.certificates", awaitCertificates())
+                .then(startupTiming.time("warmup.connections", warmConnections()))
+                .then(startupTiming.time("warmup.serde", Mono.fromCallable(this::warmSerde)
+                        .subscribeOn(Schedulers.boundedElastic())))
+                .then(Mono.fromSupplier(() -> {
+                    startupTiming.record("warmup", start);
+                    return complete(Duration.ofNanos(System.nanoTime() - start), true);
+                }))
+                .timeout(timeout)
+                .onErrorResume(e -> {
+                    log.warn("Warm-up did not complete, accepting traffic anyway: {}", e.toString());
+                    return Mono.just(complete(Duration.ofNanos(System.nanoTime() - start), false));
+                });
+    }
+
+    private Result complete(Duration duration, boolean completed) {
+        Result done = new Result(duration, warmedRequests.get(), completed);
+        result = done;
+        return done;
+    }
+
+    private Mono<Boolean> awaitCertificates() {
+        if (!certificateManager.isPresent()) {
+            return Mono.just(true);
+        }
+        return certificateManager.get().ready();
+    }
+
+    /**
+     * Sends concurrent requests so the pool opens its connections up front: one per request over HTTP/1.1,
+     * up to the HTTP/2 connection limit otherwise. Any HTTP response, including an error status, means the
+     * connection and its TLS handshake were established.
+     */
+    private Mono<Integer> warmConnections() {
+        if (requests <= 0) {
+            return Mono.just(0);
+        }
+        if (warmupPath.isBlank()) {
+            log.info("No visa.warmup.path configured, skipping connection warm-up");
+            return Mono.just(0);
+        }
+        return Flux.range(0, requests)
+                .flatMap(i -> Mono.from(visaHttpClient.exchange(
+                                HttpRequest.HEAD(warmupPath).setAttribute(WARMUP_ATTRIBUTE, true)))
+                        .thenReturn(true)
+                        .onErrorResume(HttpClientResponseException.class, e -> Mono.just(true))
+                        .onErrorResume(e -> {
+                            log.debug("Warm-up connection failed: {}", e.getMessage());
+                            return Mono.just(false);
+                        })
+                        .doOnNext(established -> {
+                            if (established) {
+                                warmedRequests.incrementAndGet();
+                            }
+                        }), requests)
+                .then(Mono.fromSupplier(warmedRequests::get));
+    }
+
+    /**
+     * Runs the request mappings and the JSON (de)serialization of the Visa requests and responses
+     * enough times for the JIT to compile the hot paths.
+     */
+    private Integer warmSerde() {
+        EnrollDataRequestDto enrollData = EnrollDataRequestDto.builder()
+                .intentType("PRODUCT_CODE").intentValue("CLICK_TO_PAY")
+                .consumerId("warmup").firstName("Warm").lastName("Up").countryCode("US").locale("en_US")
+                .emails(List.of("warmup@example.com")).phones(List.of("15550000000"))
+                .consentVersion("1.0").consentPresenter("warmup").consentTimestamp("2024-01-01T00:00:00Z")
+                .paymentType("CARD").cardNumber("4111111111111111").cardType("VISA")
+                .nameOnCard("Warm Up").expirationDate("2030-12")
+                .build();
+        GetDataRequestDto getData = GetDataRequestDto.builder()
+                .intentType("PRODUCT_CODE").intentValue("CLICK_TO_PAY").consumerId("warmup")
+                .build();
+
+        try {
+            for (int i = 0; i < serdeIterations; i++) {
+                jsonMapper.writeValueAsBytes(visaMapper.mapToEnrollDataRequest(
+                        jsonMapper.readValue(jsonMapper.writeValueAsBytes(enrollData), Argument.of(EnrollDataRequestDto.class))));
+                jsonMapper.writeValueAsBytes(visaMapper.mapToGetDataRequest(getData));
+
+                jsonMapper.writeValueAsBytes(visaMapper.mapToEnrollmentResponse(
+                        jsonMapper.readValue(REQUEST_ID_RESPONSE, Argument.of(RequestIdResponse.class))));
+                jsonMapper.writeValueAsBytes(visaMapper.mapToRequestStatusResponse(
+                        jsonMapper.readValue(REQUEST_STATUS_RESPONSE, Argument.of(RequestStatusResponse.class))));
+                jsonMapper.writeValueAsBytes(visaMapper.mapToConsumerDataResponse(
+                        jsonMapper.readValue(GET_DATA_RESPONSE, Argument.of(GetDataResponse.class))));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Warm-up serialization failed", e);
+        }
+        return serdeIterations;
+    }
+}
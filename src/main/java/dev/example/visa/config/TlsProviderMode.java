@@ -0,0 +1,23 @@
+package dev.example.visa.config;
+
+/**
+ * TLS engine used by the Visa client, selected with {@code visa.api.tls.provider}.
+ * The JDK engine is the default; the OpenSSL modes are opt-in.
+ */
+public enum TlsProviderMode {
+
+    /**
+     * Use OpenSSL (BoringSSL from netty-tcnative) when it is available, otherwise the JDK engine.
+     */
+    AUTO,
+
+    /**
+     * Require the OpenSSL engine; falls back to the JDK engine with a warning when it cannot be loaded.
+     */
+    OPENSSL,
+
+    /**
+     * Always use the JDK {@code SSLEngine}.
+     */
+    JDK
+}
@@ -0,0 +1,24 @@
+package dev.example.visa.config;
+
+import io.micronaut.http.client.HttpClientConfiguration;
+
+/**
+ * HTTP client configuration of the Visa API client, bound through {@code @Client(configuration = ...)}.
+ * Starts from the global {@code micronaut.http.client} settings and is customized in {@link HttpClientConfig},
+ * with a connection pool of its own that is sized from the {@code visa.api} settings.
+ */
+public class VisaHttpClientConfiguration extends HttpClientConfiguration {
+
+    private final ConnectionPoolConfiguration connectionPoolConfiguration;
+
+    public VisaHttpClientConfiguration(HttpClientConfiguration defaults,
+                                       ConnectionPoolConfiguration connectionPoolConfiguration) {
+        super(defaults);
+        this.connectionPoolConfiguration = connectionPoolConfiguration;
+    }
+
+    @Override
+    public ConnectionPoolConfiguration getConnectionPoolConfiguration() {
+        return connectionPoolConfiguration;
+    }
+}
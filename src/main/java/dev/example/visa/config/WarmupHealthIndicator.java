@@ -0,0 +1,49 @@
+package dev.example.visa.config;
+
+import io.micronaut.health.HealthStatus;
+import io.micronaut.management.health.indicator.AbstractHealthIndicator;
+import io.micronaut.management.health.indicator.annotation.Readiness;
+import jakarta.inject.Singleton;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Readiness check that stays DOWN until the {@link StartupWarmup} has finished,
+ * so the pod only receives traffic once connections are open and the hot paths are compiled.
+ */
+@Singleton
+@Readiness
+public class WarmupHealthIndicator extends AbstractHealthIndicator<Map<String, Object>> {
+
+    private final StartupWarmup startupWarmup;
+
+    public WarmupHealthIndicator(StartupWarmup startupWarmup) {
+        this.startupWarmup = startupWarmup;
+    }
+
+    @Override
+    protected Map<String, Object> getHealthInformation() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        Optional<StartupWarmup.Result> result = startupWarmup.result();
+
+        if (result.isEmpty()) {
+            healthStatus = HealthStatus.DOWN;
+            details.put("warmup", "running");
+            return details;
+        }
+
+        StartupWarmup.Result done = result.get();
+        details.put("warmup", done.completed() ? "completed" : "incomplete");
+        details.put("durationMs", done.duration().toMillis());
+        details.put("requests", done.requests());
+        healthStatus = HealthStatus.UP;
+        return details;
+    }
+
+    @Override
+    protected String getName() {
+        return "warmup";
+    }
+}
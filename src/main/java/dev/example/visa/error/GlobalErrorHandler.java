@@ -1,5 +1,6 @@
 package dev.example.visa.error;
 
+import dev.example.visa.client.VisaCallRejectedException;
 import dev.example.visa.model.ErrorResponse;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.http.HttpRequest;
@@ -33,6 +34,17 @@ public class GlobalErrorHandler implements ExceptionHandler<Throwable, HttpRespo
             return handleHttpClientException(clientException);
         }
 
+        if (exception instanceof VisaCallRejectedException rejected) {
+            ThrowableProblem problem = Problem.builder()
+                    .withType(URI.create("https://api.example.dev/errors/visa-call-rejected"))
+                    .withTitle("Visa API Unavailable")
+                    .withStatus(Status.SERVICE_UNAVAILABLE)
+                    .withDetail(rejected.getMessage())
+                    .with("reason", rejected.getReason())
+                    .build();
+            return HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE).body(problem);
+        }
+
         ThrowableProblem problem = Problem.builder()
                 .withType(URI.create("https://api.example.dev/errors/server-error"))
                 .withTitle("Internal Server Error")
@@ -0,0 +1,91 @@
+package dev.example.visa.messaging;
+
+import com.rabbitmq.client.AMQP;
+import dev.example.visa.util.Deadline;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.convert.ArgumentConversionContext;
+import io.micronaut.core.type.Argument;
+import io.micronaut.rabbitmq.bind.RabbitConsumerState;
+import io.micronaut.rabbitmq.bind.RabbitTypeArgumentBinder;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Binds a {@link Deadline} argument of a RabbitMQ listener from the properties of the incoming message.
+ * <p>
+ * An {@code x-deadline} header, given in epoch milliseconds or as an ISO-8601 instant, and the message
+ * expiration both bound the deadline and the earlier one wins; the expiration counts from the message
+ * timestamp when it has one. Without either the caller is assumed to wait {@code rabbitmq.rpc.timeout}
+ * from the timestamp. A timestamp in the future, due to clock skew, counts as the time of arrival.
+ */
+@Slf4j
+@Singleton
+public class RabbitDeadlineBinder implements RabbitTypeArgumentBinder<Deadline> {
+
+    static final String DEADLINE_HEADER = "x-deadline";
+
+    private final Duration rpcTimeout;
+
+    public RabbitDeadlineBinder(@Value("${rabbitmq.rpc.timeout:30s}") Duration rpcTimeout) {
+        this.rpcTimeout = rpcTimeout;
+    }
+
+    @Override
+    public Argument<Deadline> argumentType() {
+        return Argument.of(Deadline.class);
+    }
+
+    @Override
+    public BindingResult<Deadline> bind(ArgumentConversionContext<Deadline> context, RabbitConsumerState source) {
+        Deadline deadline = resolve(source.getProperties(), Instant.now());
+        return () -> Optional.of(deadline);
+    }
+
+    Deadline resolve(AMQP.BasicProperties properties, Instant receivedAt) {
+        Instant sentAt = receivedAt;
+        Date timestamp = properties.getTimestamp();
+        if (timestamp != null && timestamp.toInstant().isBefore(receivedAt)) {
+            sentAt = timestamp.toInstant();
+        }
+
+        Instant expiresAt = null;
+        if (properties.getHeaders() != null) {
+            expiresAt = parseDeadlineHeader(properties.getHeaders().get(DEADLINE_HEADER));
+        }
+        if (properties.getExpiration() != null) {
+            try {
+                Instant expiration = sentAt.plusMillis(Long.parseLong(properties.getExpiration().trim()));
+                expiresAt = expiresAt == null || expiration.isBefore(expiresAt) ? expiration : expiresAt;
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed message expiration: {}", properties.getExpiration());
+            }
+        }
+        return new Deadline(expiresAt != null ? expiresAt : sentAt.plus(rpcTimeout));
+    }
+
+    private static Instant parseDeadlineHeader(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number millis) {
+            return Instant.ofEpochMilli(millis.longValue());
+        }
+        String text = value.toString().trim();
+        try {
+            return Instant.ofEpochMilli(Long.parseLong(text));
+        } catch (NumberFormatException e) {
+            try {
+                return Instant.parse(text);
+            } catch (DateTimeParseException ignored) {
+                log.debug("Ignoring malformed {} header: {}", DEADLINE_HEADER, text);
+                return null;
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dev.example.visa.messaging;
 
 import com.rabbitmq.client.Channel;
+import dev.example.visa.config.StartupTimingRecorder;
 import io.micronaut.context.annotation.Value;
 import io.micronaut.rabbitmq.connect.ChannelInitializer;
 import jakarta.inject.Singleton;
@@ -9,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Initializes RabbitMQ channels when they are created from the pool.
@@ -24,9 +26,17 @@ public class RabbitMQChannelPoolListener extends ChannelInitializer {
     @Value("${rabbitmq.exchange.name:visa-click-to-pay-exchange}")
     private String exchangeName;
 
+    private final StartupTimingRecorder startupTiming;
+    private final AtomicBoolean topologyRecorded = new AtomicBoolean();
+
+    public RabbitMQChannelPoolListener(StartupTimingRecorder startupTiming) {
+        this.startupTiming = startupTiming;
+    }
+
     @Override
     public void initialize(Channel channel, String name) throws IOException {
         log.info("Initializing RabbitMQ channel: {}", name);
+        long start = System.nanoTime();
 
         try {
             // Declare the direct exchange
@@ -57,6 +67,10 @@ public class RabbitMQChannelPoolListener extends ChannelInitializer {
 
                 log.info("Declared and bound queue: {} with routing key: {}", queueName, routingKey);
             }
+
+            if (topologyRecorded.compareAndSet(false, true)) {
+                startupTiming.record("rabbitmq.topology", start);
+            }
         } catch (IOException e) {
             log.error("Failed to initialize RabbitMQ channel: {}", name, e);
             throw e;
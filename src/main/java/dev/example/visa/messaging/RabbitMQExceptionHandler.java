@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.AMQP;
 import com.rabbitmq.client.Channel;
 import com.rabbitmq.client.Envelope;
+import dev.example.visa.client.VisaCallRejectedException;
+import dev.example.visa.client.VisaDeadlineExceededException;
 import dev.example.visa.model.ErrorResponse;
 import io.github.jopenlibs.vault.VaultException;
 import io.micronaut.context.annotation.Primary;
@@ -74,6 +76,13 @@ public class RabbitMQExceptionHandler implements RabbitListenerExceptionHandler
         }
 
         Throwable cause = getRootCause(exception);
+        // The caller has given up waiting, an error reply would only pile up in its reply queue
+        if (cause instanceof VisaDeadlineExceededException) {
+            log.debug("Deadline of the request passed, acknowledging message without reply");
+            channel.basicAck(envelope.getDeliveryTag(), false);
+            return;
+        }
+
         int statusCode = determineStatusCode(cause);
         ErrorResponse errorResponse = createErrorResponse(cause);
         byte[] responseBody = objectMapper.writeValueAsBytes(errorResponse);
@@ -110,6 +119,8 @@ public class RabbitMQExceptionHandler implements RabbitListenerExceptionHandler
     private int determineStatusCode(Throwable exception) {
         if (exception instanceof HttpClientResponseException httpException) {
             return httpException.getStatus().getCode();
+        } else if (exception instanceof VisaCallRejectedException) {
+            return 503; // Service Unavailable, the call was shed before reaching Visa
         } else if (exception instanceof VaultException) {
             return 500; // Internal Server Error
         } else if (exception instanceof IllegalArgumentException) {
@@ -126,6 +137,9 @@ public class RabbitMQExceptionHandler implements RabbitListenerExceptionHandler
         Map<String, Object> headers = new HashMap<>();
         headers.put("x-error-type", exception.getClass().getName());
         headers.put("x-error-status", statusCode);
+        if (exception instanceof VisaCallRejectedException rejected) {
+            headers.put("x-rejection-reason", rejected.getReason());
+        }
         return headers;
     }
 
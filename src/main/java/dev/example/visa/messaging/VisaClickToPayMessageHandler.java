@@ -1,5 +1,8 @@
 package dev.example.visa.messaging;
 
+import dev.example.visa.client.VisaDeadlineEnforcer;
+import dev.example.visa.client.VisaOperation;
+import dev.example.visa.config.StartupWarmup;
 import dev.example.visa.dto.ConsumerDataResponseDto;
 import dev.example.visa.dto.DeleteConsumerInformationRequestDto;
 import dev.example.visa.dto.DeletePaymentInstrumentsRequestDto;
@@ -12,6 +15,7 @@ import dev.example.visa.dto.ManagePaymentInstrumentsRequestDto;
 import dev.example.visa.dto.RequestStatusResponseDto;
 import dev.example.visa.mappers.VisaMapper;
 import dev.example.visa.service.VisaClickToPayService;
+import dev.example.visa.util.Deadline;
 import io.micronaut.rabbitmq.annotation.Queue;
 import io.micronaut.rabbitmq.annotation.RabbitListener;
 import io.micronaut.tracing.annotation.ContinueSpan;
@@ -26,6 +30,9 @@ import java.util.UUID;
 
 /**
  * Enhanced RabbitMQ message handler that handles flattened DTOs.
+ * Messages that arrive before the {@link StartupWarmup} has finished are held until it completes.
+ * Every request carries the {@link Deadline} of its caller, bound by {@link RabbitDeadlineBinder}; once it
+ * passes the Visa call is cancelled and no reply is published.
  */
 @Slf4j
 @Singleton
@@ -35,6 +42,8 @@ public class VisaClickToPayMessageHandler {
 
     private final VisaClickToPayService visaService;
     private final VisaMapper requestMapper;
+    private final StartupWarmup startupWarmup;
+    private final VisaDeadlineEnforcer deadlineEnforcer;
 
 
     /*@Value("${rabbitmq.rpc.request-queue:visa-click-to-pay-requests}")
@@ -46,16 +55,18 @@ public class VisaClickToPayMessageHandler {
     @ContinueSpan
     public Mono<EnrollmentResponseDto> enrollData(
             @SpanTag("enrollData.request") EnrollDataRequestDto requestDto,
-            @SpanTag("correlationId") String correlationId) {
+            @SpanTag("correlationId") String correlationId,
+            Deadline deadline) {
 
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Processing enrollData request with correlationId: {}", correlationId);
-            return visaService.enrollDataMapped(
+            return deadlineEnforcer.within(VisaOperation.ENROLL_DATA, deadline,
+                    startupWarmup.gate(visaService.enrollDataMapped(
                             requestMapper.mapToEnrollDataRequest(requestDto), traceId)
                     .doOnSuccess(response -> log.info("Successfully processed enrollData request: {}",
                             response.status()))
-                    .doOnError(e -> log.error("Error processing enrollData request", e));
+                    .doOnError(e -> log.error("Error processing enrollData request", e))));
         }
     }
 
@@ -63,16 +74,18 @@ public class VisaClickToPayMessageHandler {
     @ContinueSpan
     public Mono<EnrollmentResponseDto> enrollPaymentInstruments(
             @SpanTag("enrollPaymentInstruments.request") EnrollPaymentInstrumentsRequestDto requestDto,
-            @SpanTag("correlationId") String correlationId) {
+            @SpanTag("correlationId") String correlationId,
+            Deadline deadline) {
 
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Processing enrollPaymentInstruments request with correlationId: {}", correlationId);
-            return visaService.enrollPaymentInstrumentsMapped(
+            return deadlineEnforcer.within(VisaOperation.ENROLL_PAYMENT_INSTRUMENTS, deadline,
+                    startupWarmup.gate(visaService.enrollPaymentInstrumentsMapped(
                             requestMapper.mapToEnrollPaymentInstrumentsRequest(requestDto), traceId)
                     .doOnSuccess(response -> log.info("Successfully processed enrollPaymentInstruments request: {}",
                             response.status()))
-                    .doOnError(e -> log.error("Error processing enrollPaymentInstruments request", e));
+                    .doOnError(e -> log.error("Error processing enrollPaymentInstruments request", e))));
         }
     }
 
@@ -80,16 +93,18 @@ public class VisaClickToPayMessageHandler {
     @ContinueSpan
     public Mono<RequestStatusResponseDto> requestStatus(
             @SpanTag("requestStatus.requestTraceId") String requestTraceId,
-            @SpanTag("correlationId") String correlationId) {
+            @SpanTag("correlationId") String correlationId,
+            Deadline deadline) {
 
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Processing requestStatus for requestTraceId: {} with correlationId: {}",
                     requestTraceId, correlationId);
-            return visaService.getRequestStatusMapped(requestTraceId, traceId)
+            return deadlineEnforcer.within(VisaOperation.REQUEST_STATUS, deadline,
+                    startupWarmup.gate(visaService.getRequestStatusMapped(requestTraceId, traceId)
                     .doOnSuccess(response -> log.info("Successfully retrieved request status: {}",
                             response.status()))
-                    .doOnError(e -> log.error("Error retrieving request status", e));
+                    .doOnError(e -> log.error("Error retrieving request status", e))));
         }
     }
 
@@ -97,16 +112,18 @@ public class VisaClickToPayMessageHandler {
     @ContinueSpan
     public Mono<EnrollmentResponseDto> managePaymentInstruments(
             @SpanTag("managePaymentInstruments.request") ManagePaymentInstrumentsRequestDto requestDto,
-            @SpanTag("correlationId") String correlationId) {
+            @SpanTag("correlationId") String correlationId,
+            Deadline deadline) {
 
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Processing managePaymentInstruments request with correlationId: {}", correlationId);
-            return visaService.managePaymentInstrumentsMapped(
+            return deadlineEnforcer.within(VisaOperation.MANAGE_PAYMENT_INSTRUMENTS, deadline,
+                    startupWarmup.gate(visaService.managePaymentInstrumentsMapped(
                             requestMapper.mapToManagePaymentInstrumentsRequest(requestDto), traceId)
                     .doOnSuccess(response -> log.info("Successfully processed managePaymentInstruments request: {}",
                             response.status()))
-                    .doOnError(e -> log.error("Error processing managePaymentInstruments request", e));
+                    .doOnError(e -> log.error("Error processing managePaymentInstruments request", e))));
         }
     }
 
@@ -114,16 +131,18 @@ public class VisaClickToPayMessageHandler {
     @ContinueSpan
     public Mono<EnrollmentResponseDto> manageConsumerInformation(
             @SpanTag("manageConsumerInformation.request") ManageConsumerInformationRequestDto requestDto,
-            @SpanTag("correlationId") String correlationId) {
+            @SpanTag("correlationId") String correlationId,
+            Deadline deadline) {
 
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Processing manageConsumerInformation request with correlationId: {}", correlationId);
-            return visaService.manageConsumerInformationMapped(
+            return deadlineEnforcer.within(VisaOperation.MANAGE_CONSUMER_INFORMATION, deadline,
+                    startupWarmup.gate(visaService.manageConsumerInformationMapped(
                             requestMapper.mapToManageConsumerInformationRequest(requestDto), traceId)
                     .doOnSuccess(response -> log.info("Successfully processed manageConsumerInformation request: {}",
                             response.status()))
-                    .doOnError(e -> log.error("Error processing manageConsumerInformation request", e));
+                    .doOnError(e -> log.error("Error processing manageConsumerInformation request", e))));
         }
     }
 
@@ -131,16 +150,18 @@ public class VisaClickToPayMessageHandler {
     @ContinueSpan
     public Mono<EnrollmentResponseDto> deleteConsumerInformation(
             @SpanTag("deleteConsumerInformation.request") DeleteConsumerInformationRequestDto requestDto,
-            @SpanTag("correlationId") String correlationId) {
+            @SpanTag("correlationId") String correlationId,
+            Deadline deadline) {
 
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Processing deleteConsumerInformation request with correlationId: {}", correlationId);
-            return visaService.deleteConsumerInformationMapped(
+            return deadlineEnforcer.within(VisaOperation.DELETE_CONSUMER_INFORMATION, deadline,
+                    startupWarmup.gate(visaService.deleteConsumerInformationMapped(
                             requestMapper.mapToDeleteConsumerInformationRequest(requestDto), traceId)
                     .doOnSuccess(response -> log.info("Successfully processed deleteConsumerInformation request: {}",
                             response.status()))
-                    .doOnError(e -> log.error("Error processing deleteConsumerInformation request", e));
+                    .doOnError(e -> log.error("Error processing deleteConsumerInformation request", e))));
         }
     }
 
@@ -148,16 +169,18 @@ public class VisaClickToPayMessageHandler {
     @ContinueSpan
     public Mono<EnrollmentResponseDto> deletePaymentInstruments(
             @SpanTag("deletePaymentInstruments.request") DeletePaymentInstrumentsRequestDto requestDto,
-            @SpanTag("correlationId") String correlationId) {
+            @SpanTag("correlationId") String correlationId,
+            Deadline deadline) {
 
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Processing deletePaymentInstruments request with correlationId: {}", correlationId);
-            return visaService.deletePaymentInstrumentsMapped(
+            return deadlineEnforcer.within(VisaOperation.DELETE_PAYMENT_INSTRUMENTS, deadline,
+                    startupWarmup.gate(visaService.deletePaymentInstrumentsMapped(
                             requestMapper.mapToDeletePaymentInstrumentsRequest(requestDto), traceId)
                     .doOnSuccess(response -> log.info("Successfully processed deletePaymentInstruments request: {}",
                             response.status()))
-                    .doOnError(e -> log.error("Error processing deletePaymentInstruments request", e));
+                    .doOnError(e -> log.error("Error processing deletePaymentInstruments request", e))));
         }
     }
 
@@ -165,16 +188,18 @@ public class VisaClickToPayMessageHandler {
     @ContinueSpan
     public Mono<ConsumerDataResponseDto> getData(
             @SpanTag("getData.request") GetDataRequestDto requestDto,
-            @SpanTag("correlationId") String correlationId) {
+            @SpanTag("correlationId") String correlationId,
+            Deadline deadline) {
 
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Processing getData request with correlationId: {}", correlationId);
-            return visaService.getDataMapped(
+            return deadlineEnforcer.within(VisaOperation.GET_DATA, deadline,
+                    startupWarmup.gate(visaService.getDataMapped(
                             requestMapper.mapToGetDataRequest(requestDto), traceId)
                     .doOnSuccess(response -> log.info("Successfully processed getData request: {}",
                             response.status()))
-                    .doOnError(e -> log.error("Error processing getData request", e));
+                    .doOnError(e -> log.error("Error processing getData request", e))));
         }
     }
 
@@ -0,0 +1,157 @@
+package dev.example.visa.security;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reads secrets rendered to files by a Vault Agent sidecar, one file per key named after the key.
+ * Files are read once into memory and reloaded by a {@link WatchService} when the directory changes,
+ * so reads never touch the network or the disk.
+ */
+@Slf4j
+@Singleton
+@Requires(property = "visa.security.secrets.source", value = "file")
+public class FileSecretSource implements SecretSource {
+
+    private final Path directory;
+    private final Duration debounce;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Map<String, String> secrets;
+    private WatchService watchService;
+    private Thread watcher;
+
+    public FileSecretSource(@Value("${visa.security.secrets.file.directory:/vault/secrets}") Path directory,
+                            @Value("${visa.security.secrets.file.debounce:500ms}") Duration debounce) {
+        this.directory = directory;
+        this.debounce = debounce;
+    }
+
+    @Override
+    public String describe() {
+        return "file:" + directory;
+    }
+
+    @Override
+    public synchronized void initialize() {
+        if (watcher != null) {
+            return;
+        }
+
+        secrets = loadFiles();
+        log.info("Loaded {} secrets from {}", secrets.size(), directory);
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to watch secret directory " + directory, e);
+        }
+
+        watcher = Thread.ofPlatform().name("secret-file-watcher").daemon().start(this::watch);
+    }
+
+    @Override
+    public Payload read(SecretSnapshot previous) {
+        Map<String, String> current = secrets;
+        if (current == null) {
+            throw new IllegalStateException("Secret files have not been loaded from " + directory);
+        }
+        return new Payload(current, null);
+    }
+
+    @Override
+    public void onChange(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                // Renderers write several files in a row, wait until the directory settles
+                do {
+                    key.pollEvents();
+                    if (!key.reset()) {
+                        log.error("Secret directory {} is no longer accessible, stopped watching", directory);
+                        return;
+                    }
+                    key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Secret file watcher stopped");
+        }
+    }
+
+    private void reload() {
+        try {
+            Map<String, String> reloaded = loadFiles();
+            if (reloaded.equals(secrets)) {
+                return;
+            }
+            secrets = reloaded;
+            log.info("Reloaded {} secrets from {}", reloaded.size(), directory);
+            listeners.forEach(Runnable::run);
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload secret files from {}, keeping previous content", directory, e);
+        }
+    }
+
+    private Map<String, String> loadFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            Map<String, String> loaded = new HashMap<>();
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                // Skip hidden files and the "..data" links of Kubernetes atomic writes
+                if (name.startsWith(".") || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                loaded.put(name, Files.readString(file, StandardCharsets.UTF_8).stripTrailing());
+            }
+            return loaded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read secret files from " + directory, e);
+        }
+    }
+
+    @PreDestroy
+    synchronized void shutdown() {
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Failed to close secret file watch service", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package dev.example.visa.security;
+
+import io.micronaut.context.BeanProvider;
+import io.micronaut.context.annotation.Replaces;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.io.ResourceResolver;
+import io.micronaut.http.client.HttpVersionSelection;
+import io.micronaut.http.client.netty.ssl.NettyClientSslBuilder;
+import io.micronaut.http.ssl.SslConfiguration;
+import io.netty.handler.ssl.SslContext;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.KeyManagerFactorySpi;
+import javax.net.ssl.ManagerFactoryParameters;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.TrustManagerFactorySpi;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Builds the client {@code SslContext} of the Visa API client from the in-memory key stores of the
+ * {@link CertificateManager} instead of key store files. The context is built around the manager's rotating
+ * key and trust managers, so certificate rotation does not require rebuilding the client.
+ * Its session cache is sized with {@code visa.api.tls.session-cache.size} and expires sessions after
+ * {@code visa.api.tls.session-cache.timeout}, so new pooled connections can resume a session negotiated
+ * with Visa instead of paying for a full mutual TLS handshake.
+ * Any other client SSL configuration is handled by the default Micronaut builder.
+ */
+@Slf4j
+@Singleton
+@Replaces(NettyClientSslBuilder.class)
+public class InMemoryClientSslBuilder extends NettyClientSslBuilder {
+
+    private final BeanProvider<CertificateManager> certificateManager;
+    private final int sessionCacheSize;
+    private final Duration sessionTimeout;
+
+    public InMemoryClientSslBuilder(ResourceResolver resourceResolver,
+                                    BeanProvider<CertificateManager> certificateManager,
+                                    @Value("${visa.api.tls.session-cache.size:512}") int sessionCacheSize,
+                                    @Value("${visa.api.tls.session-cache.timeout:30m}") Duration sessionTimeout) {
+        super(resourceResolver);
+        this.certificateManager = certificateManager;
+        this.sessionCacheSize = sessionCacheSize;
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    @Override
+    public SslContext build(SslConfiguration ssl, HttpVersionSelection versionSelection) {
+        SslContext context = super.build(ssl, versionSelection);
+        if (ssl instanceof VisaSslConfiguration) {
+            // Same settings SslContextBuilder#sessionCacheSize and #sessionTimeout apply when the context is created
+            SSLSessionContext sessionContext = context.sessionContext();
+            sessionContext.setSessionCacheSize(sessionCacheSize);
+            sessionContext.setSessionTimeout((int) sessionTimeout.toSeconds());
+            log.info("Visa TLS session cache configured with size {} and timeout {}", sessionCacheSize, sessionTimeout);
+        }
+        return context;
+    }
+
+    @Override
+    protected KeyManagerFactory getKeyManagerFactory(SslConfiguration ssl) {
+        if (!(ssl instanceof VisaSslConfiguration)) {
+            return super.getKeyManagerFactory(ssl);
+        }
+
+        return manager().map(manager -> keyManagerFactory(manager.keyManager())).orElse(null);
+    }
+
+    @Override
+    protected TrustManagerFactory getTrustManagerFactory(SslConfiguration ssl) {
+        if (!(ssl instanceof VisaSslConfiguration)) {
+            return super.getTrustManagerFactory(ssl);
+        }
+
+        return manager().map(manager -> trustManagerFactory(manager.trustManager())).orElse(null);
+    }
+
+    private Optional<CertificateManager> manager() {
+        if (!certificateManager.isPresent()) {
+            log.warn("No certificate manager available, building Visa SSL context without client certificate");
+            return Optional.empty();
+        }
+
+        CertificateManager manager = certificateManager.get();
+        if (manager.currentMaterial().isEmpty()) {
+            log.info("Visa TLS material is not loaded yet, handshakes will use it as soon as it is installed");
+        }
+        return Optional.of(manager);
+    }
+
+    /**
+     * Wraps a single key manager in a factory, so the SSL context keeps using that instance across rotations.
+     */
+    private static KeyManagerFactory keyManagerFactory(KeyManager manager) {
+        return new KeyManagerFactory(new KeyManagerFactorySpi() {
+            @Override
+            protected void engineInit(KeyStore keyStore, char[] password) {
+            }
+
+            @Override
+            protected void engineInit(ManagerFactoryParameters parameters) {
+            }
+
+            @Override
+            protected KeyManager[] engineGetKeyManagers() {
+                return new KeyManager[]{manager};
+            }
+        }, null, KeyManagerFactory.getDefaultAlgorithm()) {
+        };
+    }
+
+    /**
+     * Wraps a single trust manager in a factory, so the SSL context keeps using that instance across rotations.
+     */
+    private static TrustManagerFactory trustManagerFactory(TrustManager manager) {
+        return new TrustManagerFactory(new TrustManagerFactorySpi() {
+            @Override
+            protected void engineInit(KeyStore keyStore) {
+            }
+
+            @Override
+            protected void engineInit(ManagerFactoryParameters parameters) {
+            }
+
+            @Override
+            protected TrustManager[] engineGetTrustManagers() {
+                return new TrustManager[]{manager};
+            }
+        }, null, TrustManagerFactory.getDefaultAlgorithm()) {
+        };
+    }
+}
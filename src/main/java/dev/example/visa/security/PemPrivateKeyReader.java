@@ -0,0 +1,177 @@
+package dev.example.visa.security;
+
+import java.io.ByteArrayOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads unencrypted PEM private keys and detects their algorithm, so RSA and EC client certificates
+ * can be used interchangeably. Supports PKCS#8 ({@code PRIVATE KEY}), PKCS#1 ({@code RSA PRIVATE KEY})
+ * and SEC1 ({@code EC PRIVATE KEY}); the legacy formats are wrapped into PKCS#8 before decoding.
+ */
+public final class PemPrivateKeyReader {
+
+    private static final Pattern PEM = Pattern.compile(
+            "-----BEGIN ([A-Z ]+)-----(.*?)-----END \\1-----", Pattern.DOTALL);
+
+    private static final byte[] OID_RSA_ENCRYPTION = {0x2A, (byte) 0x86, 0x48, (byte) 0x86, (byte) 0xF7, 0x0D, 0x01, 0x01, 0x01};
+    private static final byte[] OID_EC_PUBLIC_KEY = {0x2A, (byte) 0x86, 0x48, (byte) 0xCE, 0x3D, 0x02, 0x01};
+
+    private static final int SEQUENCE = 0x30;
+    private static final int INTEGER = 0x02;
+    private static final int OCTET_STRING = 0x04;
+    private static final int NULL = 0x05;
+    private static final int OBJECT_IDENTIFIER = 0x06;
+    private static final int EC_PARAMETERS = 0xA0;
+
+    private PemPrivateKeyReader() {
+    }
+
+    /**
+     * Decodes the first private key block of the PEM text.
+     */
+    public static PrivateKey read(String pem) throws GeneralSecurityException {
+        Matcher matcher = PEM.matcher(pem);
+        while (matcher.find()) {
+            String type = matcher.group(1);
+            String body = matcher.group(2);
+            if (!type.endsWith("PRIVATE KEY")) {
+                continue;
+            }
+            if (body.contains("Proc-Type:") || type.startsWith("ENCRYPTED")) {
+                throw new InvalidKeySpecException("Encrypted private keys are not supported");
+            }
+
+            byte[] der = Base64.getMimeDecoder().decode(body);
+            return switch (type) {
+                case "PRIVATE KEY" -> decodePkcs8(der);
+                case "RSA PRIVATE KEY" -> KeyFactory.getInstance("RSA")
+                        .generatePrivate(new PKCS8EncodedKeySpec(wrapPkcs8(algorithmIdentifier(OID_RSA_ENCRYPTION, null), der)));
+                case "EC PRIVATE KEY" -> KeyFactory.getInstance("EC")
+                        .generatePrivate(new PKCS8EncodedKeySpec(wrapPkcs8(algorithmIdentifier(OID_EC_PUBLIC_KEY, sec1Curve(der)), der)));
+                default -> throw new InvalidKeySpecException("Unsupported private key type: " + type);
+            };
+        }
+        throw new InvalidKeySpecException("No PEM private key found");
+    }
+
+    /**
+     * Decodes a PKCS#8 key with the key factory matching the algorithm identifier it declares.
+     */
+    private static PrivateKey decodePkcs8(byte[] der) throws GeneralSecurityException {
+        // PrivateKeyInfo ::= SEQUENCE { version INTEGER, algorithm SEQUENCE { OID, parameters }, privateKey OCTET STRING }
+        Der info = Der.read(der, 0, SEQUENCE);
+        Der version = Der.read(der, info.contentStart, INTEGER);
+        Der algorithm = Der.read(der, version.end(), SEQUENCE);
+        Der oid = Der.read(der, algorithm.contentStart, OBJECT_IDENTIFIER);
+        byte[] oidValue = Arrays.copyOfRange(der, oid.contentStart, oid.end());
+
+        String keyAlgorithm;
+        if (Arrays.equals(oidValue, OID_RSA_ENCRYPTION)) {
+            keyAlgorithm = "RSA";
+        } else if (Arrays.equals(oidValue, OID_EC_PUBLIC_KEY)) {
+            keyAlgorithm = "EC";
+        } else {
+            throw new InvalidKeySpecException("Unsupported private key algorithm");
+        }
+        return KeyFactory.getInstance(keyAlgorithm).generatePrivate(new PKCS8EncodedKeySpec(der));
+    }
+
+    /**
+     * Returns the encoded named curve OID of a SEC1 key, which PKCS#8 carries in the algorithm identifier.
+     */
+    private static byte[] sec1Curve(byte[] der) throws InvalidKeySpecException {
+        // ECPrivateKey ::= SEQUENCE { version INTEGER, privateKey OCTET STRING, parameters [0] OID, publicKey [1] }
+        Der key = Der.read(der, 0, SEQUENCE);
+        Der version = Der.read(der, key.contentStart, INTEGER);
+        Der privateKey = Der.read(der, version.end(), OCTET_STRING);
+        if (privateKey.end() >= key.end() || (der[privateKey.end()] & 0xFF) != EC_PARAMETERS) {
+            throw new InvalidKeySpecException("EC private key does not name its curve");
+        }
+        Der parameters = Der.read(der, privateKey.end(), EC_PARAMETERS);
+        Der curve = Der.read(der, parameters.contentStart, OBJECT_IDENTIFIER);
+        return Arrays.copyOfRange(der, curve.start, curve.end());
+    }
+
+    private static byte[] algorithmIdentifier(byte[] oid, byte[] encodedParameters) {
+        byte[] parameters = encodedParameters != null ? encodedParameters : new byte[]{NULL, 0x00};
+        return Der.encode(SEQUENCE, Der.encode(OBJECT_IDENTIFIER, oid), parameters);
+    }
+
+    private static byte[] wrapPkcs8(byte[] algorithmIdentifier, byte[] key) {
+        return Der.encode(SEQUENCE,
+                Der.encode(INTEGER, new byte[]{0x00}),
+                algorithmIdentifier,
+                Der.encode(OCTET_STRING, key));
+    }
+
+    /**
+     * Position of a single DER element: where its tag starts, where its content starts and how long the content is.
+     */
+    private record Der(int start, int contentStart, int length) {
+
+        int end() {
+            return contentStart + length;
+        }
+
+        static Der read(byte[] der, int offset, int expectedTag) throws InvalidKeySpecException {
+            if (offset + 2 > der.length || (der[offset] & 0xFF) != expectedTag) {
+                throw new InvalidKeySpecException("Malformed private key encoding");
+            }
+            int length = der[offset + 1] & 0xFF;
+            int contentStart = offset + 2;
+            if (length > 0x80) {
+                int lengthBytes = length & 0x7F;
+                if (lengthBytes > 3 || contentStart + lengthBytes > der.length) {
+                    throw new InvalidKeySpecException("Malformed private key encoding");
+                }
+                length = 0;
+                for (int i = 0; i < lengthBytes; i++) {
+                    length = (length << 8) | (der[contentStart + i] & 0xFF);
+                }
+                contentStart += lengthBytes;
+            } else if (length == 0x80) {
+                throw new InvalidKeySpecException("Indefinite length encoding is not supported");
+            }
+            if (contentStart + length > der.length) {
+                throw new InvalidKeySpecException("Malformed private key encoding");
+            }
+            return new Der(offset, contentStart, length);
+        }
+
+        static byte[] encode(int tag, byte[]... parts) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            for (byte[] part : parts) {
+                content.writeBytes(part);
+            }
+            int length = content.size();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(tag);
+            if (length < 0x80) {
+                out.write(length);
+            } else if (length <= 0xFF) {
+                out.write(0x81);
+                out.write(length);
+            } else if (length <= 0xFFFF) {
+                out.write(0x82);
+                out.write(length >> 8);
+                out.write(length);
+            } else {
+                out.write(0x83);
+                out.write(length >> 16);
+                out.write(length >> 8);
+                out.write(length);
+            }
+            out.writeBytes(content.toByteArray());
+            return out.toByteArray();
+        }
+    }
+}
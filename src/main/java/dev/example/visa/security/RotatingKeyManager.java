@@ -0,0 +1,89 @@
+package dev.example.visa.security;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509KeyManager;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+
+/**
+ * Key manager that delegates to the key manager built from the current {@link TlsMaterial}.
+ * The SSL context of the Visa client is created once with this manager, so swapping the delegate
+ * makes every new handshake present the rotated client certificate without rebuilding the client.
+ * Handshakes that are already in progress keep the delegate they started with.
+ */
+public class RotatingKeyManager extends X509ExtendedKeyManager {
+
+    private volatile X509ExtendedKeyManager delegate;
+
+    /**
+     * Installs the key manager built from the given material.
+     */
+    public void update(TlsMaterial material) throws GeneralSecurityException {
+        KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        factory.init(material.keyStore(), material.keyPassword());
+        for (var manager : factory.getKeyManagers()) {
+            if (manager instanceof X509ExtendedKeyManager x509) {
+                delegate = x509;
+                return;
+            }
+        }
+        throw new GeneralSecurityException("No X509 key manager available for the client key store");
+    }
+
+    public boolean isLoaded() {
+        return delegate != null;
+    }
+
+    @Override
+    public String[] getClientAliases(String keyType, Principal[] issuers) {
+        X509KeyManager current = delegate;
+        return current == null ? null : current.getClientAliases(keyType, issuers);
+    }
+
+    @Override
+    public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+        X509KeyManager current = delegate;
+        return current == null ? null : current.chooseClientAlias(keyType, issuers, socket);
+    }
+
+    @Override
+    public String chooseEngineClientAlias(String[] keyType, Principal[] issuers, SSLEngine engine) {
+        X509ExtendedKeyManager current = delegate;
+        return current == null ? null : current.chooseEngineClientAlias(keyType, issuers, engine);
+    }
+
+    @Override
+    public String[] getServerAliases(String keyType, Principal[] issuers) {
+        X509KeyManager current = delegate;
+        return current == null ? null : current.getServerAliases(keyType, issuers);
+    }
+
+    @Override
+    public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+        X509KeyManager current = delegate;
+        return current == null ? null : current.chooseServerAlias(keyType, issuers, socket);
+    }
+
+    @Override
+    public String chooseEngineServerAlias(String keyType, Principal[] issuers, SSLEngine engine) {
+        X509ExtendedKeyManager current = delegate;
+        return current == null ? null : current.chooseEngineServerAlias(keyType, issuers, engine);
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(String alias) {
+        X509KeyManager current = delegate;
+        return current == null ? null : current.getCertificateChain(alias);
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(String alias) {
+        X509KeyManager current = delegate;
+        return current == null ? null : current.getPrivateKey(alias);
+    }
+}
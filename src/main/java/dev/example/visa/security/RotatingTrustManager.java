@@ -0,0 +1,82 @@
+package dev.example.visa.security;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+/**
+ * Trust manager that delegates to the trust manager built from the current {@link TlsMaterial},
+ * so a rotated Visa server certificate is trusted by new connections without rebuilding the client.
+ * Until material is loaded every server is rejected.
+ */
+public class RotatingTrustManager extends X509ExtendedTrustManager {
+
+    private volatile X509ExtendedTrustManager delegate;
+
+    /**
+     * Installs the trust manager built from the given material.
+     */
+    public void update(TlsMaterial material) throws GeneralSecurityException {
+        TrustManagerFactory factory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        factory.init(material.trustStore());
+        for (var manager : factory.getTrustManagers()) {
+            if (manager instanceof X509ExtendedTrustManager x509) {
+                delegate = x509;
+                return;
+            }
+        }
+        throw new GeneralSecurityException("No X509 trust manager available for the trust store");
+    }
+
+    public boolean isLoaded() {
+        return delegate != null;
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        current().checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        current().checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        current().checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+        current().checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+        current().checkServerTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) throws CertificateException {
+        current().checkServerTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+        X509ExtendedTrustManager current = delegate;
+        return current == null ? new X509Certificate[0] : current.getAcceptedIssuers();
+    }
+
+    private X509ExtendedTrustManager current() throws CertificateException {
+        X509ExtendedTrustManager current = delegate;
+        if (current == null) {
+            throw new CertificateException("Visa trust material is not loaded yet");
+        }
+        return current;
+    }
+}
@@ -0,0 +1,12 @@
+package dev.example.visa.security;
+
+/**
+ * Published when the content of the secret snapshot changes.
+ * Consumers such as the authentication interceptor listen for it
+ * to rebuild derived state eagerly instead of detecting the change on the request path.
+ *
+ * @param previous the snapshot that was replaced
+ * @param current  the new snapshot
+ */
+public record SecretRotationEvent(SecretSnapshot previous, SecretSnapshot current) {
+}
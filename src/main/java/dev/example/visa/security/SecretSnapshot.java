@@ -0,0 +1,45 @@
+package dev.example.visa.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable view of all keys stored under the configured secret path.
+ * The version only changes when the secret content changes, so consumers can
+ * cheaply detect credential rotation by comparing versions.
+ */
+public record SecretSnapshot(
+        Map<String, String> data,
+        long version,
+        Instant fetchedAt,
+        Instant expiresAt
+) {
+    public SecretSnapshot {
+        data = Map.copyOf(data);
+    }
+
+    public static SecretSnapshot initial(Map<String, String> data, Instant fetchedAt, Instant expiresAt) {
+        return new SecretSnapshot(data, 1, fetchedAt, expiresAt);
+    }
+
+    /**
+     * Creates the successor of this snapshot, bumping the version only when the content differs.
+     */
+    public SecretSnapshot next(Map<String, String> newData, Instant newFetchedAt, Instant newExpiresAt) {
+        long nextVersion = data.equals(newData) ? version : version + 1;
+        return new SecretSnapshot(newData, nextVersion, newFetchedAt, newExpiresAt);
+    }
+
+    public Optional<String> get(String key) {
+        return Optional.ofNullable(data.get(key));
+    }
+
+    /**
+     * Returns true when the underlying lease (if any) ends within the given margin.
+     */
+    public boolean isExpiringWithin(Instant now, Duration margin) {
+        return expiresAt != null && !now.plus(margin).isBefore(expiresAt);
+    }
+}
@@ -0,0 +1,43 @@
+package dev.example.visa.security;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Backend the secret snapshot is loaded from.
+ * The implementation is selected with {@code visa.security.secrets.source} ({@code vault} or {@code file}).
+ */
+public interface SecretSource {
+
+    /**
+     * Secret content read from the source.
+     *
+     * @param data      all secret keys and values
+     * @param expiresAt when the lease of the content expires, or null if it does not expire
+     */
+    record Payload(Map<String, String> data, Instant expiresAt) {
+    }
+
+    /**
+     * Returns a short description of the source for logs.
+     */
+    String describe();
+
+    /**
+     * Prepares the source, e.g. authenticates or starts watching for changes. Called once at startup.
+     */
+    void initialize();
+
+    /**
+     * Reads all secret keys. May block; returns the previous content when the source knows nothing changed.
+     *
+     * @param previous the current snapshot, or null on the first read
+     */
+    Payload read(SecretSnapshot previous);
+
+    /**
+     * Registers a callback invoked when the source detects a change by itself.
+     */
+    default void onChange(Runnable listener) {
+    }
+}
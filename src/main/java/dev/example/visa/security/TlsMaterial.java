@@ -0,0 +1,14 @@
+package dev.example.visa.security;
+
+import java.security.KeyStore;
+
+/**
+ * In-memory key material for the Visa mutual TLS connection.
+ *
+ * @param keyStore    holds the client certificate chain and private key
+ * @param keyPassword protects the private key entry in the key store
+ * @param trustStore  holds the Visa server certificate
+ * @param version     the secret snapshot version the material was built from
+ */
+public record TlsMaterial(KeyStore keyStore, char[] keyPassword, KeyStore trustStore, long version) {
+}
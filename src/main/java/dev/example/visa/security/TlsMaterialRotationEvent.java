@@ -0,0 +1,12 @@
+package dev.example.visa.security;
+
+/**
+ * Published once rotated key material is installed in the Visa client SSL context.
+ * New connections use the current material from then on; connections opened with
+ * older material can be retired, for example by the Visa connection tracker.
+ *
+ * @param previous the material that was replaced, or null when none was installed before
+ * @param current  the material now used for new handshakes
+ */
+public record TlsMaterialRotationEvent(TlsMaterial previous, TlsMaterial current) {
+}
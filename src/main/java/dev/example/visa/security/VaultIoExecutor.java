@@ -0,0 +1,101 @@
+package dev.example.visa.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking Vault driver calls on a dedicated, bounded scheduler so they never
+ * execute on a Netty event loop. Concurrency is capped by a semaphore and the number
+ * of calls waiting for a permit is bounded; excess calls are rejected immediately.
+ */
+@Slf4j
+@Singleton
+public class VaultIoExecutor {
+
+    private final Scheduler scheduler;
+    private final Semaphore permits;
+    private final int maxQueued;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer queueWait;
+
+    public VaultIoExecutor(@Value("${visa.security.vault.io.max-concurrency:4}") int maxConcurrency,
+                           @Value("${visa.security.vault.io.max-queued:64}") int maxQueued,
+                           @Value("${visa.security.vault.io.virtual-threads:true}") boolean virtualThreads,
+                           MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxQueued = maxQueued;
+        this.scheduler = virtualThreads
+                ? Schedulers.fromExecutorService(
+                        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vault-io-", 0).factory()),
+                        "vault-io")
+                : Schedulers.newBoundedElastic(maxConcurrency, maxQueued, "vault-io");
+
+        this.queueWait = Timer.builder("vault.io.queue.wait")
+                .description("Time Vault calls spend waiting for a free I/O slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge("vault.io.active", active);
+        meterRegistry.gauge("vault.io.pending", pending);
+
+        log.info("Vault I/O executor using {} threads with max concurrency {} and queue limit {}",
+                virtualThreads ? "virtual" : "platform", maxConcurrency, maxQueued);
+    }
+
+    /**
+     * Executes the blocking task on the Vault I/O scheduler.
+     */
+    public <T> Mono<T> execute(Callable<T> task) {
+        return Mono.defer(() -> {
+            if (pending.incrementAndGet() > maxQueued) {
+                pending.decrementAndGet();
+                return Mono.error(new RejectedExecutionException("Vault I/O queue is full"));
+            }
+
+            long submittedAt = System.nanoTime();
+            AtomicBoolean started = new AtomicBoolean();
+
+            return Mono.fromCallable(() -> {
+                        permits.acquire();
+                        // A cancellation racing the permit may already have released the queue slot
+                        if (started.compareAndSet(false, true)) {
+                            pending.decrementAndGet();
+                        }
+                        queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                        active.incrementAndGet();
+                        try {
+                            return task.call();
+                        } finally {
+                            active.decrementAndGet();
+                            permits.release();
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .doFinally(signal -> {
+                        if (started.compareAndSet(false, true)) {
+                            pending.decrementAndGet();
+                        }
+                    });
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.dispose();
+    }
+}
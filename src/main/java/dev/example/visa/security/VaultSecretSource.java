@@ -0,0 +1,115 @@
+package dev.example.visa.security;
+
+import io.github.jopenlibs.vault.VaultException;
+import io.github.jopenlibs.vault.response.DataMetadata;
+import io.github.jopenlibs.vault.response.LogicalResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Reads secrets through the Vault HTTP API.
+ * With KV v2 only the secret metadata is read on refresh, and the full payload is fetched when the version changed.
+ */
+@Slf4j
+@Singleton
+@Requires(property = "visa.security.secrets.source", value = "vault", defaultValue = "vault")
+public class VaultSecretSource implements SecretSource {
+
+    private final String secretPath;
+    private final int kvVersion;
+    private final VaultTokenManager tokenManager;
+    private final Counter versionUnchanged;
+    private final Counter versionChanged;
+    private final Counter versionUnknown;
+
+    private volatile long lastSeenKvVersion = -1;
+
+    public VaultSecretSource(@Value("${visa.security.vault.secret-path}") String secretPath,
+                             @Value("${visa.security.vault.kv-version:2}") int kvVersion,
+                             VaultTokenManager tokenManager,
+                             MeterRegistry meterRegistry) {
+        this.secretPath = secretPath;
+        this.kvVersion = kvVersion;
+        this.tokenManager = tokenManager;
+        this.versionUnchanged = meterRegistry.counter("vault.secret.version.checks", "result", "unchanged");
+        this.versionChanged = meterRegistry.counter("vault.secret.version.checks", "result", "changed");
+        this.versionUnknown = meterRegistry.counter("vault.secret.version.checks", "result", "unknown");
+    }
+
+    @Override
+    public String describe() {
+        return "vault:" + secretPath;
+    }
+
+    @Override
+    public void initialize() {
+        tokenManager.login();
+    }
+
+    @Override
+    public Payload read(SecretSnapshot previous) {
+        if (previous != null && kvVersion == 2) {
+            OptionalLong currentVersion = readCurrentKvVersion();
+            if (currentVersion.isEmpty()) {
+                versionUnknown.increment();
+            } else if (currentVersion.getAsLong() == lastSeenKvVersion) {
+                versionUnchanged.increment();
+                log.debug("Secret at {} unchanged (KV version {}), skipped payload fetch", secretPath, lastSeenKvVersion);
+                return new Payload(previous.data(), previous.expiresAt());
+            } else {
+                versionChanged.increment();
+            }
+        }
+
+        try {
+            LogicalResponse response = tokenManager.vault().logical().read(secretPath);
+            Map<String, String> data = response.getData();
+
+            Long leaseDuration = response.getLeaseDuration();
+            Instant expiresAt = leaseDuration != null && leaseDuration > 0
+                    ? Instant.now().plusSeconds(leaseDuration)
+                    : null;
+            DataMetadata metadata = response.getDataMetadata();
+            if (metadata != null && metadata.getVersion() != null) {
+                lastSeenKvVersion = metadata.getVersion();
+            }
+            return new Payload(data, expiresAt);
+        } catch (VaultException e) {
+            log.error("Failed to retrieve secrets from path: {}", secretPath, e);
+            throw new RuntimeException("Failed to retrieve secrets from path: " + secretPath, e);
+        }
+    }
+
+    /**
+     * Reads only the KV v2 metadata of the secret to learn its current version.
+     * Returns empty when the metadata cannot be read, in which case the full secret is fetched.
+     */
+    private OptionalLong readCurrentKvVersion() {
+        try {
+            LogicalResponse response = tokenManager.rawPathVault().logical().read(metadataPath());
+            String currentVersion = response.getData().get("current_version");
+            return currentVersion != null ? OptionalLong.of(Long.parseLong(currentVersion)) : OptionalLong.empty();
+        } catch (VaultException | NumberFormatException e) {
+            log.warn("Failed to read KV metadata for {}, falling back to a full read: {}", secretPath, e.getMessage());
+            return OptionalLong.empty();
+        }
+    }
+
+    /**
+     * Maps {@code <mount>/<path>} to the KV v2 metadata endpoint {@code <mount>/metadata/<path>}.
+     */
+    private String metadataPath() {
+        int separator = secretPath.indexOf('/');
+        return separator < 0
+                ? secretPath + "/metadata"
+                : secretPath.substring(0, separator) + "/metadata" + secretPath.substring(separator);
+    }
+}
@@ -0,0 +1,62 @@
+package dev.example.visa.security;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.health.HealthStatus;
+import io.micronaut.management.health.indicator.AbstractHealthIndicator;
+import jakarta.inject.Singleton;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reports how stale the cached Vault secret snapshot is.
+ * The service stays UP while a last-known-good snapshot within the max staleness is available,
+ * and goes DOWN once no usable snapshot is left.
+ */
+@Singleton
+@Requires(property = "visa.security.vault.enabled", value = "true")
+public class VaultSecretsHealthIndicator extends AbstractHealthIndicator<Map<String, Object>> {
+
+    private final VaultService vaultService;
+
+    public VaultSecretsHealthIndicator(VaultService vaultService) {
+        this.vaultService = vaultService;
+    }
+
+    @Override
+    protected Map<String, Object> getHealthInformation() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        Instant now = Instant.now();
+        Optional<SecretSnapshot> current = vaultService.currentSnapshot();
+
+        details.put("maxStalenessSeconds", vaultService.getMaxStaleness().toSeconds());
+        details.put("consecutiveRefreshFailures", vaultService.getConsecutiveRefreshFailures());
+        vaultService.getLastRefreshFailure().ifPresent(error -> details.put("lastRefreshFailure", error));
+
+        if (current.isEmpty()) {
+            healthStatus = HealthStatus.DOWN;
+            details.put("snapshot", "unavailable");
+            return details;
+        }
+
+        SecretSnapshot snapshot = current.get();
+        details.put("version", snapshot.version());
+        details.put("fetchedAt", snapshot.fetchedAt().toString());
+        details.put("ageSeconds", Duration.between(snapshot.fetchedAt(), now).toSeconds());
+        details.put("stale", vaultService.isRefreshDue(snapshot, now));
+        if (vaultService.getConsecutiveRefreshFailures() > 0) {
+            details.put("nextRefreshAttempt", vaultService.getNextRefreshAttempt().toString());
+        }
+
+        healthStatus = HealthStatus.UP;
+        return details;
+    }
+
+    @Override
+    protected String getName() {
+        return "vaultSecrets";
+    }
+}
@@ -1,67 +1,137 @@
 package dev.example.visa.security;
 
-import io.github.jopenlibs.vault.Vault;
-import io.github.jopenlibs.vault.VaultConfig;
-import io.github.jopenlibs.vault.VaultException;
-import io.github.jopenlibs.vault.response.LogicalResponse;
+import dev.example.visa.config.StartupTimingRecorder;
+import dev.example.visa.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micronaut.context.annotation.Value;
 import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.context.event.StartupEvent;
+import io.micronaut.scheduling.annotation.Scheduled;
 import jakarta.inject.Singleton;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
-import java.util.Map;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Provides access to the application secrets.
+ * All keys are read at once from the configured {@link SecretSource} into an immutable {@link SecretSnapshot}
+ * that is refreshed in the background, so hot-path reads are served from memory.
+ * Source reads run on the {@link VaultIoExecutor} and concurrent refreshes share a single in-flight call.
+ * <p>
+ * When the source is unavailable the last-known-good snapshot keeps being served for up to
+ * {@code visa.security.vault.max-staleness}, while refreshes are retried with exponential backoff.
+ * Callers that find no usable snapshot during the backoff fail fast with the last error.
+ * Content changes are published as {@link SecretRotationEvent}s.
+ * <p>
+ * The source is initialized and the first snapshot loaded asynchronously on startup, so the
+ * application context does not wait for Vault; callers that need secrets before then wait for {@link #ready()}.
+ */
 @Slf4j
 @Singleton
 public class VaultService implements ApplicationEventListener<StartupEvent> {
 
-    @Value("${visa.security.vault.enabled}")
-    private boolean vaultEnabled;
+    private final boolean vaultEnabled;
+    private final Duration refreshInterval;
+    private final Duration leaseExpiryMargin;
+    private final Duration maxStaleness;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
 
-    @Value("${visa.security.vault.address}")
-    private String vaultAddress;
+    private volatile boolean initialized;
 
-    @Value("${visa.security.vault.app-role-id}")
-    private String appRoleId;
+    private final AtomicReference<SecretSnapshot> snapshot = new AtomicReference<>();
+    private final SingleFlight<String, SecretSnapshot> refreshes = new SingleFlight<>();
+    private final VaultIoExecutor ioExecutor;
+    private final SecretSource secretSource;
+    private final ApplicationEventPublisher<SecretRotationEvent> eventPublisher;
+    private final StartupTimingRecorder startupTiming;
+    private final Mono<SecretSnapshot> initialLoad;
 
-    @Value("${visa.security.vault.app-role-secret-id}")
-    private String appRoleSecretId;
+    private volatile int consecutiveFailures;
+    private volatile Instant nextAttemptAt = Instant.EPOCH;
+    private volatile String lastFailure;
+    private volatile Throwable lastError;
 
-    @Value("${visa.security.vault.secret-path}")
-    private String secretPath;
+    private final Counter cacheHits;
+    private final Counter staleHits;
+    private final Counter cacheMisses;
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
 
-    private Vault vault;
+    public VaultService(@Value("${visa.security.vault.enabled}") boolean vaultEnabled,
+                        @Value("${visa.security.vault.refresh-interval:5m}") Duration refreshInterval,
+                        @Value("${visa.security.vault.lease-expiry-margin:30s}") Duration leaseExpiryMargin,
+                        @Value("${visa.security.vault.max-staleness:24h}") Duration maxStaleness,
+                        @Value("${visa.security.vault.refresh-backoff.initial:1s}") Duration initialBackoff,
+                        @Value("${visa.security.vault.refresh-backoff.max:5m}") Duration maxBackoff,
+                        VaultIoExecutor ioExecutor,
+                        SecretSource secretSource,
+                        ApplicationEventPublisher<SecretRotationEvent> eventPublisher,
+                        StartupTimingRecorder startupTiming,
+                        MeterRegistry meterRegistry) {
+        this.vaultEnabled = vaultEnabled;
+        this.refreshInterval = refreshInterval;
+        this.leaseExpiryMargin = leaseExpiryMargin;
+        this.maxStaleness = maxStaleness;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.ioExecutor = ioExecutor;
+        this.secretSource = secretSource;
+        this.eventPublisher = eventPublisher;
+        this.startupTiming = startupTiming;
+        // Failures are not cached, so the next caller retries the initial load
+        this.initialLoad = Mono.defer(this::loadInitialSnapshot)
+                .cache(value -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+        this.cacheHits = meterRegistry.counter("vault.secret.cache.requests", "result", "hit");
+        this.staleHits = meterRegistry.counter("vault.secret.cache.requests", "result", "stale");
+        this.cacheMisses = meterRegistry.counter("vault.secret.cache.requests", "result", "miss");
+        this.refreshSuccess = meterRegistry.timer("vault.secret.refresh", "outcome", "success");
+        this.refreshFailure = meterRegistry.timer("vault.secret.refresh", "outcome", "failure");
+        meterRegistry.gauge("vault.secret.snapshot.age", this, VaultService::snapshotAgeSeconds);
+    }
 
     @Override
     public void onApplicationEvent(StartupEvent event) {
         if (vaultEnabled) {
-            initializeVault();
+            initialLoad.subscribe(
+                    loaded -> log.info("Initial secret snapshot loaded (version {})", loaded.version()),
+                    e -> log.error("Failed to load initial secret snapshot, secrets will be loaded on first use", e));
         } else {
             log.info("Vault integration is disabled");
         }
     }
 
-    private void initializeVault() {
-        try {
-            log.info("Initializing Vault client with address: {}", vaultAddress);
-
-            final VaultConfig config = new VaultConfig()
-                    .address(vaultAddress)
-                    .build();
-
-            vault = Vault.create(config);
-
-            String token = vault.auth().loginByAppRole(appRoleId, appRoleSecretId).getAuthClientToken();
-            log.info("Successfully authenticated with Vault using AppRole");
+    /**
+     * Completes with the first snapshot once the source is initialized and loaded.
+     */
+    public Mono<SecretSnapshot> ready() {
+        if (!vaultEnabled) {
+            return Mono.error(new IllegalStateException("Vault is disabled"));
+        }
+        return initialLoad;
+    }
 
-            config.token(token);
+    private Mono<SecretSnapshot> loadInitialSnapshot() {
+        return startupTiming.time("secrets.initialize", ioExecutor.execute(this::initializeSource))
+                .then(startupTiming.time("secrets.initial-load", fetchSnapshot()));
+    }
 
-        } catch (VaultException e) {
-            log.error("Failed to initialize Vault", e);
-            throw new RuntimeException("Failed to initialize Vault", e);
+    private synchronized Boolean initializeSource() {
+        if (!initialized) {
+            log.info("Loading secrets from {}", secretSource.describe());
+            secretSource.initialize();
+            secretSource.onChange(this::onSourceChanged);
+            initialized = true;
         }
+        return true;
     }
 
     public Mono<String> getClientCertificate() {
@@ -84,26 +154,218 @@ public class VaultService implements ApplicationEventListener<StartupEvent> {
         return getSecret("api_secret");
     }
 
-    private Mono<String> getSecret(String key) {
+    /**
+     * Returns the current secret snapshot, loading it from the source only when nothing usable is cached.
+     * A snapshot that is due for refresh but within the max staleness is returned immediately
+     * while it is revalidated in the background.
+     */
+    public Mono<SecretSnapshot> getSnapshot() {
         if (!vaultEnabled) {
-            log.warn("Vault is disabled, cannot retrieve secret: {}", key);
+            log.warn("Vault is disabled, cannot retrieve secret snapshot");
             return Mono.error(new IllegalStateException("Vault is disabled"));
         }
 
-        return Mono.fromCallable(() -> {
+        Optional<SecretSnapshot> cached = cachedSnapshot();
+        if (cached.isPresent()) {
+            return Mono.just(cached.get());
+        }
+
+        cacheMisses.increment();
+        Instant now = Instant.now();
+        if (!initialized) {
+            return initialLoad;
+        }
+        // Within the backoff a miss must not hit the source on every call while it is down
+        Throwable error = lastError;
+        if (error != null && now.isBefore(nextAttemptAt)) {
+            return Mono.error(new IllegalStateException(
+                    "Secret source unavailable, next attempt at " + nextAttemptAt, error));
+        }
+        return fetchSnapshot();
+    }
+
+    /**
+     * Non-blocking variant of {@link #getSnapshot()} for hot paths: returns the cached snapshot and counts it as a
+     * hit, or as a stale hit that triggers a background revalidation. Returns empty, without counting a miss,
+     * when nothing usable is cached; the caller then falls back to {@link #getSnapshot()}.
+     */
+    public Optional<SecretSnapshot> cachedSnapshot() {
+        if (!vaultEnabled) {
+            return Optional.empty();
+        }
+
+        SecretSnapshot current = snapshot.get();
+        Instant now = Instant.now();
+        if (current != null && !isRefreshDue(current, now)) {
+            cacheHits.increment();
+            return Optional.of(current);
+        }
+
+        if (current != null && isUsable(current, now)) {
+            staleHits.increment();
+            revalidateInBackground(now);
+            return Optional.of(current);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the cached snapshot without triggering a source read or counting a cache request,
+     * as long as it is within the max staleness. Meant for health checks and diagnostics.
+     */
+    public Optional<SecretSnapshot> currentSnapshot() {
+        SecretSnapshot current = snapshot.get();
+        return current != null && isUsable(current, Instant.now()) ? Optional.of(current) : Optional.empty();
+    }
+
+    public Duration getMaxStaleness() {
+        return maxStaleness;
+    }
+
+    public int getConsecutiveRefreshFailures() {
+        return consecutiveFailures;
+    }
+
+    public Instant getNextRefreshAttempt() {
+        return nextAttemptAt;
+    }
+
+    public Optional<String> getLastRefreshFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    /**
+     * Returns true when the snapshot should be refreshed, either because the refresh interval
+     * elapsed or because its lease is about to expire.
+     */
+    public boolean isRefreshDue(SecretSnapshot current, Instant now) {
+        return !now.isBefore(current.fetchedAt().plus(refreshInterval))
+                || current.isExpiringWithin(now, leaseExpiryMargin);
+    }
+
+    private boolean isUsable(SecretSnapshot current, Instant now) {
+        return !now.isAfter(current.fetchedAt().plus(maxStaleness));
+    }
+
+    /**
+     * Refreshes the snapshot when it is due, unless a previous failure put refreshes into backoff.
+     */
+    @Scheduled(fixedDelay = "${visa.security.vault.refresh-check-interval:30s}",
+            initialDelay = "${visa.security.vault.refresh-check-interval:30s}")
+    void refreshIfDue() {
+        if (!vaultEnabled || !initialized) {
+            return;
+        }
+
+        SecretSnapshot current = snapshot.get();
+        Instant now = Instant.now();
+        if ((current == null || isRefreshDue(current, now)) && !now.isBefore(nextAttemptAt)) {
             try {
-                LogicalResponse response = vault.logical().read(secretPath);
-                Map<String, String> data = response.getData();
+                fetchSnapshot().block();
+            } catch (RuntimeException e) {
+                log.warn("Background secret refresh failed, keeping last-known-good snapshot", e);
+            }
+        }
+    }
+
+    private void revalidateInBackground(Instant now) {
+        if (!initialized || now.isBefore(nextAttemptAt)) {
+            return;
+        }
+
+        fetchSnapshot().subscribe(
+                updated -> log.debug("Revalidated stale secret snapshot (version {})", updated.version()),
+                e -> log.warn("Background revalidation of secret snapshot failed: {}", e.getMessage()));
+    }
+
+    private void onSourceChanged() {
+        fetchSnapshot().subscribe(
+                updated -> log.debug("Reloaded secret snapshot after source change (version {})", updated.version()),
+                e -> log.warn("Reloading secret snapshot after source change failed: {}", e.getMessage()));
+    }
+
+    /**
+     * Reads the secret source on the Vault I/O scheduler, sharing the call with concurrent callers.
+     */
+    private Mono<SecretSnapshot> fetchSnapshot() {
+        return refreshes.execute(secretSource.describe(), () -> ioExecutor.execute(this::refreshSnapshot)
+                .doOnSuccess(updated -> onRefreshSuccess())
+                .doOnError(this::onRefreshFailure));
+    }
+
+    /**
+     * Refreshes the snapshot. Runs under the single-flight guard, so there is only one refresher at a time.
+     */
+    private SecretSnapshot refreshSnapshot() {
+        long start = System.nanoTime();
+        try {
+            SecretSnapshot previous = snapshot.get();
+            SecretSource.Payload payload = secretSource.read(previous);
+            Instant fetchedAt = Instant.now();
+
+            SecretSnapshot updated = previous == null
+                    ? SecretSnapshot.initial(payload.data(), fetchedAt, payload.expiresAt())
+                    : previous.next(payload.data(), fetchedAt, payload.expiresAt());
+            snapshot.set(updated);
 
-                if (!data.containsKey(key)) {
-                    throw new RuntimeException("Secret not found: " + key);
-                }
+            refreshSuccess.record(Duration.ofNanos(System.nanoTime() - start));
+            log.debug("Refreshed secret snapshot from {} (version {})", secretSource.describe(), updated.version());
 
-                return data.get(key);
-            } catch (VaultException e) {
-                log.error("Failed to retrieve secret: {}", key, e);
-                throw new RuntimeException("Failed to retrieve secret: " + key, e);
+            if (previous != null && previous.version() != updated.version()) {
+                log.info("Secret rotation detected at {}, snapshot version {} -> {}",
+                        secretSource.describe(), previous.version(), updated.version());
+                eventPublisher.publishEvent(new SecretRotationEvent(previous, updated));
             }
-        });
+            return updated;
+        } catch (RuntimeException e) {
+            refreshFailure.record(Duration.ofNanos(System.nanoTime() - start));
+            throw e;
+        }
+    }
+
+    private void onRefreshSuccess() {
+        if (consecutiveFailures > 0) {
+            log.info("Secret refresh recovered after {} failed attempts", consecutiveFailures);
+        }
+        consecutiveFailures = 0;
+        nextAttemptAt = Instant.EPOCH;
+        lastFailure = null;
+        lastError = null;
+    }
+
+    private synchronized void onRefreshFailure(Throwable error) {
+        int failures = ++consecutiveFailures;
+        long delay = backoffMillis(failures, initialBackoff, maxBackoff);
+        nextAttemptAt = Instant.now().plusMillis(delay);
+        lastFailure = error.getMessage();
+        lastError = error;
+        log.warn("Secret refresh failed {} time(s) in a row, next attempt in {}ms", failures, delay);
+    }
+
+    /**
+     * Returns the wait before the next refresh attempt: exponential in the number of failures, capped at the
+     * max backoff, and drawn at random from the upper half so that replicas do not retry against a recovering
+     * Vault in lockstep.
+     */
+    static long backoffMillis(int failures, Duration initialBackoff, Duration maxBackoff) {
+        long exponential = initialBackoff.toMillis() << Math.min(failures - 1, 20);
+        long capped = Math.min(exponential, maxBackoff.toMillis());
+        return ThreadLocalRandom.current().nextLong(capped / 2, capped + 1);
+    }
+
+    private double snapshotAgeSeconds() {
+        SecretSnapshot current = snapshot.get();
+        return current == null ? Double.NaN : Duration.between(current.fetchedAt(), Instant.now()).toSeconds();
+    }
+
+    private Mono<String> getSecret(String key) {
+        if (!vaultEnabled) {
+            log.warn("Vault is disabled, cannot retrieve secret: {}", key);
+            return Mono.error(new IllegalStateException("Vault is disabled"));
+        }
+
+        return getSnapshot().flatMap(current -> current.get(key)
+                .map(Mono::just)
+                .orElseGet(() -> Mono.error(new RuntimeException("Secret not found: " + key))));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,240 @@
+package dev.example.visa.security;
+
+import io.github.jopenlibs.vault.Vault;
+import io.github.jopenlibs.vault.VaultConfig;
+import io.github.jopenlibs.vault.VaultException;
+import io.github.jopenlibs.vault.response.AuthResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.TaskScheduler;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BiFunction;
+
+/**
+ * Owns the Vault client token obtained through AppRole.
+ * The token is renewed in the background once a configured fraction of its TTL has elapsed;
+ * when renewal is not possible (non-renewable token, max TTL reached or renewal failure)
+ * a fresh AppRole login is performed instead. The token is swapped in place on the client
+ * configurations, so requests in flight keep using the previous, still valid token.
+ * The raw path client has its own {@link VaultConfig}, because the KV engine version is
+ * written into the configuration and must not leak into the primary client.
+ */
+@Slf4j
+@Singleton
+public class VaultTokenManager {
+
+    private static final int KV_V1 = 1;
+    private static final int KV_V2 = 2;
+
+    private final String vaultAddress;
+    private final String appRoleId;
+    private final String appRoleSecretId;
+    private final double renewFraction;
+    private final Duration minRenewDelay;
+    private final Duration retryDelay;
+    private final TaskScheduler taskScheduler;
+    private final BiFunction<VaultConfig, Integer, Vault> clientFactory;
+    private final Timer loginSuccess;
+    private final Timer loginFailure;
+    private final Timer renewSuccess;
+    private final Timer renewFailure;
+
+    private VaultConfig config;
+    private VaultConfig rawPathConfig;
+    private volatile Vault vault;
+    private volatile Vault rawPathVault;
+    private volatile Instant tokenExpiresAt;
+    private volatile boolean tokenRenewable;
+    private ScheduledFuture<?> scheduledRenewal;
+
+    @Inject
+    public VaultTokenManager(@Value("${visa.security.vault.address}") String vaultAddress,
+                             @Value("${visa.security.vault.app-role-id}") String appRoleId,
+                             @Value("${visa.security.vault.app-role-secret-id}") String appRoleSecretId,
+                             @Value("${visa.security.vault.token.renew-fraction:0.67}") double renewFraction,
+                             @Value("${visa.security.vault.token.min-renew-delay:5s}") Duration minRenewDelay,
+                             @Value("${visa.security.vault.token.retry-delay:10s}") Duration retryDelay,
+                             @Named(TaskExecutors.SCHEDULED) TaskScheduler taskScheduler,
+                             MeterRegistry meterRegistry) {
+        this(vaultAddress, appRoleId, appRoleSecretId, renewFraction, minRenewDelay, retryDelay, taskScheduler,
+                Vault::create, meterRegistry);
+    }
+
+    VaultTokenManager(String vaultAddress, String appRoleId, String appRoleSecretId, double renewFraction,
+                      Duration minRenewDelay, Duration retryDelay, TaskScheduler taskScheduler,
+                      BiFunction<VaultConfig, Integer, Vault> clientFactory, MeterRegistry meterRegistry) {
+        this.vaultAddress = vaultAddress;
+        this.appRoleId = appRoleId;
+        this.appRoleSecretId = appRoleSecretId;
+        this.renewFraction = renewFraction;
+        this.minRenewDelay = minRenewDelay;
+        this.retryDelay = retryDelay;
+        this.taskScheduler = taskScheduler;
+        this.clientFactory = clientFactory;
+        this.loginSuccess = renewalTimer("login", "success", meterRegistry);
+        this.loginFailure = renewalTimer("login", "failure", meterRegistry);
+        this.renewSuccess = renewalTimer("renew", "success", meterRegistry);
+        this.renewFailure = renewalTimer("renew", "failure", meterRegistry);
+        meterRegistry.gauge("vault.token.ttl.remaining", this, VaultTokenManager::remainingTtlSeconds);
+    }
+
+    private static Timer renewalTimer(String operation, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("vault.token.renewal")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates the Vault client, logs in with AppRole and starts the background renewal.
+     */
+    public synchronized Vault login() {
+        if (vault != null) {
+            return vault;
+        }
+
+        try {
+            log.info("Initializing Vault client with address: {}", vaultAddress);
+
+            config = new VaultConfig()
+                    .address(vaultAddress)
+                    .build();
+            rawPathConfig = new VaultConfig()
+                    .address(vaultAddress)
+                    .build();
+
+            Vault client = clientFactory.apply(config, KV_V2);
+            Vault rawClient = clientFactory.apply(rawPathConfig, KV_V1);
+            applyLogin(client);
+            vault = client;
+            rawPathVault = rawClient;
+            log.info("Successfully authenticated with Vault using AppRole");
+            return client;
+        } catch (VaultException e) {
+            log.error("Failed to initialize Vault", e);
+            throw new RuntimeException("Failed to initialize Vault", e);
+        }
+    }
+
+    /**
+     * Returns the authenticated Vault client.
+     */
+    public Vault vault() {
+        Vault current = vault;
+        if (current == null) {
+            throw new IllegalStateException("Vault client is not initialized");
+        }
+        return current;
+    }
+
+    /**
+     * Returns a client sharing the same token that does not rewrite KV v2 paths,
+     * used for endpoints such as {@code <mount>/metadata/<path>}.
+     */
+    public Vault rawPathVault() {
+        Vault current = rawPathVault;
+        if (current == null) {
+            throw new IllegalStateException("Vault client is not initialized");
+        }
+        return current;
+    }
+
+    private void applyLogin(Vault client) throws VaultException {
+        long start = System.nanoTime();
+        try {
+            AuthResponse response = client.auth().loginByAppRole(appRoleId, appRoleSecretId);
+            config.token(response.getAuthClientToken());
+            rawPathConfig.token(response.getAuthClientToken());
+            onNewLease(response.getAuthLeaseDuration(), response.isAuthRenewable());
+            record(loginSuccess, start);
+        } catch (VaultException e) {
+            record(loginFailure, start);
+            throw e;
+        }
+    }
+
+    synchronized void renew() {
+        Vault client = vault;
+        if (client == null) {
+            return;
+        }
+
+        if (tokenRenewable) {
+            long start = System.nanoTime();
+            try {
+                AuthResponse response = client.auth().renewSelf();
+                long ttl = response.getAuthLeaseDuration();
+                record(renewSuccess, start);
+
+                if (ttl * 1000 * renewFraction >= minRenewDelay.toMillis()) {
+                    onNewLease(ttl, response.isAuthRenewable());
+                    log.debug("Renewed Vault token, new TTL {}s", ttl);
+                    return;
+                }
+                log.info("Vault token is reaching its max TTL ({}s left), logging in again", ttl);
+            } catch (VaultException e) {
+                record(renewFailure, start);
+                log.warn("Failed to renew Vault token, logging in again", e);
+            }
+        }
+
+        try {
+            applyLogin(client);
+            log.info("Re-authenticated with Vault using AppRole");
+        } catch (VaultException e) {
+            log.error("Failed to re-authenticate with Vault, retrying in {}", retryDelay, e);
+            scheduleRenewal(retryDelay);
+        }
+    }
+
+    private void onNewLease(long ttlSeconds, boolean renewable) {
+        tokenRenewable = renewable;
+        if (ttlSeconds <= 0) {
+            // Root or periodic tokens without TTL never expire
+            tokenExpiresAt = null;
+            cancelRenewal();
+            return;
+        }
+
+        tokenExpiresAt = Instant.now().plusSeconds(ttlSeconds);
+        Duration delay = Duration.ofMillis(Math.round(ttlSeconds * 1000 * renewFraction));
+        scheduleRenewal(delay.compareTo(minRenewDelay) < 0 ? minRenewDelay : delay);
+    }
+
+    private synchronized void scheduleRenewal(Duration delay) {
+        cancelRenewal();
+        scheduledRenewal = taskScheduler.schedule(delay, this::renew);
+        log.debug("Scheduled Vault token renewal in {}", delay);
+    }
+
+    private synchronized void cancelRenewal() {
+        if (scheduledRenewal != null) {
+            scheduledRenewal.cancel(false);
+            scheduledRenewal = null;
+        }
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private double remainingTtlSeconds() {
+        Instant expiresAt = tokenExpiresAt;
+        return expiresAt == null ? Double.NaN : Math.max(0, Duration.between(Instant.now(), expiresAt).toSeconds());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cancelRenewal();
+    }
+}
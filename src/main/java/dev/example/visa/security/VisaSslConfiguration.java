@@ -0,0 +1,10 @@
+package dev.example.visa.security;
+
+import io.micronaut.http.ssl.ClientSslConfiguration;
+
+/**
+ * Client SSL configuration of the Visa API client.
+ * Its key and trust material is not read from files but supplied in memory by {@link InMemoryClientSslBuilder}.
+ */
+public class VisaSslConfiguration extends ClientSslConfiguration {
+}
@@ -0,0 +1,184 @@
+package dev.example.visa.service;
+
+import dev.example.visa.model.RequestStatusResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded cache of Visa request statuses keyed by {@code requestTraceId}.
+ * <p>
+ * A status in one of {@code visa.api.status-cache.terminal-statuses} never changes again and is kept for
+ * {@code terminal-ttl}; any other status only for {@code non-terminal-ttl}, which absorbs tight polling loops
+ * without hiding progress for long. At most {@code max-entries} statuses are kept, the least recently used
+ * one is evicted first. {@code visa.status-cache.requests} counts hits and misses, {@code hit-ratio},
+ * {@code evictions}, {@code size} and {@code estimated-bytes} show how well it works and what it costs.
+ */
+@Slf4j
+@Singleton
+public class RequestStatusCache {
+
+    // Rough heap cost of an entry and of the objects a status is made of, for the footprint gauge
+    private static final long ENTRY_BYTES = 96;
+    private static final long OBJECT_BYTES = 32;
+    private static final long STRING_BYTES = 48;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long terminalTtlNanos;
+    private final long nonTerminalTtlNanos;
+    private final Set<String> terminalStatuses;
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final MeterRegistry meterRegistry;
+
+    private long estimatedBytes;
+
+    public RequestStatusCache(@Value("${visa.api.status-cache.enabled:true}") boolean enabled,
+                              @Value("${visa.api.status-cache.max-entries:10000}") int maxEntries,
+                              @Value("${visa.api.status-cache.terminal-ttl:1h}") Duration terminalTtl,
+                              @Value("${visa.api.status-cache.non-terminal-ttl:2s}") Duration nonTerminalTtl,
+                              @Value("${visa.api.status-cache.terminal-statuses:COMPLETED,SUCCESS,FAILED,ERROR}")
+                              List<String> terminalStatuses,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.terminalTtlNanos = terminalTtl.toNanos();
+        this.nonTerminalTtlNanos = nonTerminalTtl.toNanos();
+        this.terminalStatuses = terminalStatuses.stream()
+                .map(status -> status.trim().toUpperCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+        this.meterRegistry = meterRegistry;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= RequestStatusCache.this.maxEntries) {
+                    return false;
+                }
+                evicted(eldest.getValue(), "size");
+                return true;
+            }
+        };
+
+        this.hits = meterRegistry.counter("visa.status-cache.requests", Tags.of("result", "hit"));
+        this.misses = meterRegistry.counter("visa.status-cache.requests", Tags.of("result", "miss"));
+        meterRegistry.gauge("visa.status-cache.hit-ratio", this, RequestStatusCache::hitRatio);
+        meterRegistry.gauge("visa.status-cache.size", this, RequestStatusCache::size);
+        meterRegistry.gauge("visa.status-cache.estimated-bytes", this, RequestStatusCache::estimatedBytes);
+    }
+
+    /**
+     * Returns the cached status of the request, or loads it and caches the answer.
+     * Failed loads are not cached.
+     */
+    public Mono<RequestStatusResponse> get(String requestTraceId, Supplier<Mono<RequestStatusResponse>> loader) {
+        if (!enabled || requestTraceId == null) {
+            return Mono.defer(loader);
+        }
+        String key = requestTraceId.trim();
+        return Mono.defer(() -> {
+            RequestStatusResponse cached = lookup(key);
+            if (cached != null) {
+                hits.increment();
+                log.debug("Serving cached status {} of request {}", cached.status(), key);
+                return Mono.just(cached);
+            }
+            misses.increment();
+            return loader.get().doOnNext(response -> put(key, response));
+        });
+    }
+
+    /**
+     * Returns whether the status is final, so the request will not change any more.
+     */
+    public boolean isTerminal(RequestStatusResponse response) {
+        return response.status() != null && terminalStatuses.contains(response.status().toUpperCase(Locale.ROOT));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private synchronized RequestStatusResponse lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos >= 0) {
+            entries.remove(key);
+            evicted(entry, "expired");
+            return null;
+        }
+        return entry.response;
+    }
+
+    private synchronized void put(String key, RequestStatusResponse response) {
+        long ttlNanos = isTerminal(response) ? terminalTtlNanos : nonTerminalTtlNanos;
+        if (ttlNanos <= 0) {
+            return;
+        }
+        Entry entry = new Entry(response, System.nanoTime() + ttlNanos, ENTRY_BYTES + sizeOf(key) + sizeOf(response));
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            estimatedBytes -= previous.bytes;
+        }
+        estimatedBytes += entry.bytes;
+    }
+
+    private void evicted(Entry entry, String cause) {
+        estimatedBytes -= entry.bytes;
+        meterRegistry.counter("visa.status-cache.evictions", Tags.of("cause", cause)).increment();
+    }
+
+    private static long sizeOf(RequestStatusResponse response) {
+        long bytes = OBJECT_BYTES + sizeOf(response.status());
+        if (response.consumerInformation() != null) {
+            bytes += OBJECT_BYTES + sizeOf(response.consumerInformation().externalConsumerID());
+        }
+        if (response.details() != null) {
+            for (RequestStatusResponse.StatusDetail detail : response.details()) {
+                bytes += OBJECT_BYTES + sizeOf(detail.status());
+                if (detail.intent() != null) {
+                    bytes += OBJECT_BYTES + sizeOf(detail.intent().type()) + sizeOf(detail.intent().value());
+                }
+                if (detail.errorDetails() != null) {
+                    for (RequestStatusResponse.ErrorDetail error : detail.errorDetails()) {
+                        bytes += OBJECT_BYTES + sizeOf(error.field()) + sizeOf(error.reason())
+                                + sizeOf(error.message());
+                    }
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : STRING_BYTES + value.length();
+    }
+
+    private record Entry(RequestStatusResponse response, long expiresAtNanos, long bytes) {
+    }
+}
@@ -1,10 +1,21 @@
 package dev.example.visa.service;
 
+import dev.example.visa.client.VisaBulkheads;
+import dev.example.visa.client.VisaCallRejectedException;
+import dev.example.visa.client.VisaCircuitBreakers;
 import dev.example.visa.client.VisaClickToPayClient;
+import dev.example.visa.client.VisaConcurrencyLimiter;
+import dev.example.visa.client.VisaDeadlineEnforcer;
+import dev.example.visa.client.VisaOperation;
+import dev.example.visa.client.VisaRateLimiter;
+import dev.example.visa.client.VisaRequestCoalescer;
+import dev.example.visa.client.VisaRequestHedger;
+import dev.example.visa.client.VisaRetryExecutor;
 import dev.example.visa.dto.ConsumerDataResponseDto;
 import dev.example.visa.dto.EnrollmentResponseDto;
 import dev.example.visa.dto.RequestStatusResponseDto;
 import dev.example.visa.mappers.VisaMapper;
+import dev.example.visa.model.ConsumerInformationIdRef;
 import dev.example.visa.model.DeleteConsumerInformationRequest;
 import dev.example.visa.model.DeletePaymentInstrumentsRequest;
 import dev.example.visa.model.EnrollDataRequest;
@@ -12,6 +23,7 @@ import dev.example.visa.model.EnrollPaymentInstrumentsRequest;
 import dev.example.visa.model.ErrorResponse;
 import dev.example.visa.model.GetDataRequest;
 import dev.example.visa.model.GetDataResponse;
+import dev.example.visa.model.Intent;
 import dev.example.visa.model.ManageConsumerInformationRequest;
 import dev.example.visa.model.ManagePaymentInstrumentsRequest;
 import dev.example.visa.model.RequestIdResponse;
@@ -25,9 +37,11 @@ import org.slf4j.MDC;
 import reactor.core.publisher.Mono;
 
 import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Enhanced service that provides both raw API responses and mapped DTOs.
+ * Request statuses are answered from the {@link RequestStatusCache} when possible, on both paths.
  */
 @Slf4j
 @Singleton
@@ -35,10 +49,33 @@ public class VisaClickToPayService {
 
     private final VisaClickToPayClient visaClient;
     private final VisaMapper visaMapper;
+    private final VisaConcurrencyLimiter concurrencyLimiter;
+    private final VisaCircuitBreakers circuitBreakers;
+    private final VisaRetryExecutor retryExecutor;
+    private final VisaRequestHedger requestHedger;
+    private final VisaDeadlineEnforcer deadlineEnforcer;
+    private final VisaRateLimiter rateLimiter;
+    private final VisaBulkheads bulkheads;
+    private final VisaRequestCoalescer requestCoalescer;
+    private final RequestStatusCache statusCache;
 
-    public VisaClickToPayService(VisaClickToPayClient visaClient, VisaMapper visaMapper) {
+    public VisaClickToPayService(VisaClickToPayClient visaClient, VisaMapper visaMapper,
+                                 VisaConcurrencyLimiter concurrencyLimiter, VisaCircuitBreakers circuitBreakers,
+                                 VisaRetryExecutor retryExecutor, VisaRequestHedger requestHedger,
+                                 VisaDeadlineEnforcer deadlineEnforcer, VisaRateLimiter rateLimiter,
+                                 VisaBulkheads bulkheads, VisaRequestCoalescer requestCoalescer,
+                                 RequestStatusCache statusCache) {
         this.visaClient = visaClient;
         this.visaMapper = visaMapper;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreakers = circuitBreakers;
+        this.retryExecutor = retryExecutor;
+        this.requestHedger = requestHedger;
+        this.deadlineEnforcer = deadlineEnforcer;
+        this.rateLimiter = rateLimiter;
+        this.bulkheads = bulkheads;
+        this.requestCoalescer = requestCoalescer;
+        this.statusCache = statusCache;
     }
 
     // Raw API methods
@@ -48,7 +85,7 @@ public class VisaClickToPayService {
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Enrolling consumer data with correlationId: {}", traceId);
-            return visaClient.enrollData(request, traceId)
+            return call(VisaOperation.ENROLL_DATA, () -> visaClient.enrollData(request, traceId))
                     .doOnSuccess(response -> log.info("Successfully enrolled consumer data, requestTraceId: {}", response.requestTraceId()))
                     .doOnError(e -> log.error("Error enrolling consumer data", e));
         }
@@ -60,7 +97,7 @@ public class VisaClickToPayService {
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Enrolling payment instruments with correlationId: {}", traceId);
-            return visaClient.enrollPaymentInstruments(request, traceId)
+            return call(VisaOperation.ENROLL_PAYMENT_INSTRUMENTS, () -> visaClient.enrollPaymentInstruments(request, traceId))
                     .doOnSuccess(response -> log.info("Successfully enrolled payment instruments, requestTraceId: {}", response.requestTraceId()))
                     .doOnError(e -> log.error("Error enrolling payment instruments", e));
         }
@@ -70,9 +107,11 @@ public class VisaClickToPayService {
     public Mono<RequestStatusResponse> getRequestStatus(@SpanTag("requestTraceId") String requestTraceId, @SpanTag("correlationId") String correlationId) {
 
         String traceId = getTraceId(correlationId);
+        String id = normalize(requestTraceId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
-            log.info("Checking request status for requestTraceId: {} with correlationId: {}", requestTraceId, traceId);
-            return visaClient.getRequestStatus(requestTraceId, traceId)
+            log.info("Checking request status for requestTraceId: {} with correlationId: {}", id, traceId);
+            return statusCache.get(id, () -> call(VisaOperation.REQUEST_STATUS, id,
+                            () -> visaClient.getRequestStatus(id, traceId)))
                     .doOnSuccess(response -> log.info("Retrieved request status: {}", response.status()))
                     .doOnError(e -> log.error("Error retrieving request status", e));
         }
@@ -84,7 +123,7 @@ public class VisaClickToPayService {
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Managing payment instruments with correlationId: {}", traceId);
-            return visaClient.managePaymentInstruments(request, traceId)
+            return call(VisaOperation.MANAGE_PAYMENT_INSTRUMENTS, () -> visaClient.managePaymentInstruments(request, traceId))
                     .doOnSuccess(response -> log.info("Successfully managed payment instruments, requestTraceId: {}", response.requestTraceId()))
                     .doOnError(e -> log.error("Error managing payment instruments", e));
         }
@@ -96,7 +135,7 @@ public class VisaClickToPayService {
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Managing consumer information with correlationId: {}", traceId);
-            return visaClient.manageConsumerInformation(request, traceId)
+            return call(VisaOperation.MANAGE_CONSUMER_INFORMATION, () -> visaClient.manageConsumerInformation(request, traceId))
                     .doOnSuccess(response -> log.info("Successfully managed consumer information, requestTraceId: {}", response.requestTraceId()))
                     .doOnError(e -> log.error("Error managing consumer information", e));
         }
@@ -108,7 +147,7 @@ public class VisaClickToPayService {
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Deleting consumer information with correlationId: {}", traceId);
-            return visaClient.deleteConsumerInformation(request, traceId)
+            return call(VisaOperation.DELETE_CONSUMER_INFORMATION, () -> visaClient.deleteConsumerInformation(request, traceId))
                     .doOnSuccess(response -> log.info("Successfully deleted consumer information, requestTraceId: {}", response.requestTraceId()))
                     .doOnError(e -> log.error("Error deleting consumer information", e));
         }
@@ -120,7 +159,7 @@ public class VisaClickToPayService {
         String traceId = getTraceId(correlationId);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Deleting payment instruments with correlationId: {}", traceId);
-            return visaClient.deletePaymentInstruments(request, traceId)
+            return call(VisaOperation.DELETE_PAYMENT_INSTRUMENTS, () -> visaClient.deletePaymentInstruments(request, traceId))
                     .doOnSuccess(response -> log.info("Successfully deleted payment instruments, requestTraceId: {}", response.requestTraceId()))
                     .doOnError(e -> log.error("Error deleting payment instruments", e));
         }
@@ -130,9 +169,10 @@ public class VisaClickToPayService {
     public Mono<GetDataResponse> getData(@SpanTag("request") GetDataRequest request, @SpanTag("correlationId") String correlationId) {
 
         String traceId = getTraceId(correlationId);
+        GetDataRequest normalized = normalize(request);
         try (MDC.MDCCloseable ignored = MDC.putCloseable("traceId", traceId)) {
             log.info("Retrieving data with correlationId: {}", traceId);
-            return visaClient.getData(request, traceId)
+            return call(VisaOperation.GET_DATA, normalized, () -> visaClient.getData(normalized, traceId))
                     .doOnSuccess(response -> log.info("Successfully retrieved data"))
                     .doOnError(e -> log.error("Error retrieving data", e));
         }
@@ -151,7 +191,9 @@ public class VisaClickToPayService {
                                     .message(e.getMessage())
                                     .build());
                     return Mono.just(visaMapper.createErrorEnrollmentResponse(errorResponse));
-                });
+                })
+                .onErrorResume(VisaCallRejectedException.class,
+                        e -> Mono.just(visaMapper.createErrorEnrollmentResponse(rejectedResponse(e))));
     }
 
     @NewSpan("visa.service.enrollPaymentInstrumentsMapped")
@@ -165,7 +207,9 @@ public class VisaClickToPayService {
                                     .message(e.getMessage())
                                     .build());
                     return Mono.just(visaMapper.createErrorEnrollmentResponse(errorResponse));
-                });
+                })
+                .onErrorResume(VisaCallRejectedException.class,
+                        e -> Mono.just(visaMapper.createErrorEnrollmentResponse(rejectedResponse(e))));
     }
 
     @NewSpan("visa.service.getRequestStatusMapped")
@@ -179,7 +223,9 @@ public class VisaClickToPayService {
                                     .message(e.getMessage())
                                     .build());
                     return Mono.just(visaMapper.createErrorStatusResponse(errorResponse));
-                });
+                })
+                .onErrorResume(VisaCallRejectedException.class,
+                        e -> Mono.just(visaMapper.createErrorStatusResponse(rejectedResponse(e))));
     }
 
     @NewSpan("visa.service.managePaymentInstrumentsMapped")
@@ -193,7 +239,9 @@ public class VisaClickToPayService {
                                     .message(e.getMessage())
                                     .build());
                     return Mono.just(visaMapper.createErrorEnrollmentResponse(errorResponse));
-                });
+                })
+                .onErrorResume(VisaCallRejectedException.class,
+                        e -> Mono.just(visaMapper.createErrorEnrollmentResponse(rejectedResponse(e))));
     }
 
     @NewSpan("visa.service.manageConsumerInformationMapped")
@@ -207,7 +255,9 @@ public class VisaClickToPayService {
                                     .message(e.getMessage())
                                     .build());
                     return Mono.just(visaMapper.createErrorEnrollmentResponse(errorResponse));
-                });
+                })
+                .onErrorResume(VisaCallRejectedException.class,
+                        e -> Mono.just(visaMapper.createErrorEnrollmentResponse(rejectedResponse(e))));
     }
 
     @NewSpan("visa.service.deleteConsumerInformationMapped")
@@ -221,7 +271,9 @@ public class VisaClickToPayService {
                                     .message(e.getMessage())
                                     .build());
                     return Mono.just(visaMapper.createErrorEnrollmentResponse(errorResponse));
-                });
+                })
+                .onErrorResume(VisaCallRejectedException.class,
+                        e -> Mono.just(visaMapper.createErrorEnrollmentResponse(rejectedResponse(e))));
     }
 
     @NewSpan("visa.service.deletePaymentInstrumentsMapped")
@@ -235,7 +287,9 @@ public class VisaClickToPayService {
                                     .message(e.getMessage())
                                     .build());
                     return Mono.just(visaMapper.createErrorEnrollmentResponse(errorResponse));
-                });
+                })
+                .onErrorResume(VisaCallRejectedException.class,
+                        e -> Mono.just(visaMapper.createErrorEnrollmentResponse(rejectedResponse(e))));
     }
 
     @NewSpan("visa.service.getDataMapped")
@@ -249,7 +303,61 @@ public class VisaClickToPayService {
                                     .message(e.getMessage())
                                     .build());
                     return Mono.just(visaMapper.createErrorDataResponse(errorResponse));
-                });
+                })
+                .onErrorResume(VisaCallRejectedException.class,
+                        e -> Mono.just(visaMapper.createErrorDataResponse(rejectedResponse(e))));
+    }
+
+    /**
+     * Describes a call that was shed before reaching Visa, so the caller gets an immediate error reply.
+     */
+    private static ErrorResponse rejectedResponse(VisaCallRejectedException e) {
+        return ErrorResponse.builder()
+                .reason(e.getReason())
+                .message(e.getMessage())
+                .build();
+    }
+
+    /**
+     * Runs a Visa client call through the circuit breaker and the bulkhead of the operation, the rate
+     * limiter and the adaptive concurrency limit, retrying it where the retry policy allows and hedging
+     * read-only calls. Every attempt, including a hedge, passes the breaker and the limiters again, and an
+     * open breaker fails the call before it takes a slot or a token. The whole of it, retries included, is
+     * cancelled at the deadline of the caller when one was given.
+     */
+    private <T> Mono<T> call(VisaOperation operation, Supplier<Mono<T>> call) {
+        return call(operation, null, call);
+    }
+
+    /**
+     * Like {@link #call(VisaOperation, Supplier)}, but read-only calls with the same normalized parameters
+     * that are in flight at the same time share one Visa call. Every caller keeps its own deadline.
+     */
+    private <T> Mono<T> call(VisaOperation operation, Object parameters, Supplier<Mono<T>> call) {
+        return deadlineEnforcer.execute(operation, () -> requestCoalescer.execute(operation, parameters,
+                () -> retryExecutor.execute(operation, () -> requestHedger.execute(operation,
+                        () -> circuitBreakers.execute(operation, () -> bulkheads.execute(operation,
+                                () -> rateLimiter.execute(operation,
+                                        () -> concurrencyLimiter.execute(operation, call))))))));
+    }
+
+    /**
+     * Trims the fields that identify the data asked for, so the request sent to Visa is also its coalescing key.
+     */
+    private static GetDataRequest normalize(GetDataRequest request) {
+        if (request == null) {
+            return null;
+        }
+        return new GetDataRequest(
+                request.intent() != null
+                        ? new Intent(normalize(request.intent().type()), normalize(request.intent().value())) : null,
+                request.consumerInformation() != null
+                        ? new ConsumerInformationIdRef(normalize(request.consumerInformation().externalConsumerID()))
+                        : null);
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim() : null;
     }
 
     /**
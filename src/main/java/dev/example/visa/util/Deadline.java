@@ -0,0 +1,42 @@
+package dev.example.visa.util;
+
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * The instant by which a caller needs its answer. It travels with the request in the Reactor context,
+ * keyed by this class, so the calls made on the caller's behalf can give up once nobody waits for them.
+ *
+ * @param expiresAt the instant after which the answer is of no use to the caller
+ */
+public record Deadline(Instant expiresAt) {
+
+    /**
+     * Returns a deadline the given budget from now.
+     */
+    public static Deadline after(Duration budget) {
+        return new Deadline(Instant.now().plus(budget));
+    }
+
+    /**
+     * Returns the deadline carried by the given Reactor context, if any.
+     */
+    public static Optional<Deadline> current(ContextView context) {
+        return context.getOrEmpty(Deadline.class);
+    }
+
+    /**
+     * Returns the time left until the deadline, never negative.
+     */
+    public Duration remaining() {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    public boolean isExpired() {
+        return !Instant.now().isBefore(expiresAt);
+    }
+}
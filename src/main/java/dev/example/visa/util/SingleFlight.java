@@ -0,0 +1,113 @@
+package dev.example.visa.util;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single in-flight call.
+ * Every subscriber arriving while a call for the key is running shares its result;
+ * the entry is dropped as soon as the call terminates, so results are never cached.
+ * <p>
+ * The call runs detached from the Reactor context of the subscriber that started it, so no single caller's
+ * context, such as its {@link Deadline}, applies to the others. Subscribers are counted: one that cancels
+ * leaves the call running for the rest, and the call is cancelled when the last one leaves.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the call for the given key unless one is already in flight, in which case its result is shared.
+     */
+    public Mono<V> execute(K key, Supplier<? extends Mono<V>> call) {
+        return Mono.defer(() -> {
+            AtomicReference<Flight<V>> started = new AtomicReference<>();
+            Flight<V> flight = inFlight.compute(key, (k, existing) -> {
+                if (existing != null && existing.join()) {
+                    return existing;
+                }
+                Flight<V> created = new Flight<>();
+                created.join();
+                started.set(created);
+                return created;
+            });
+
+            if (started.get() != null) {
+                flight.start(Mono.defer(call).doFinally(signal -> inFlight.remove(key, flight)));
+            }
+            return flight.result.asMono()
+                    .doOnCancel(() -> {
+                        if (flight.leave()) {
+                            inFlight.remove(key, flight);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Returns the number of keys with a call currently in flight.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * One shared call and the subscribers waiting for it.
+     */
+    private static final class Flight<V> {
+
+        private final Sinks.One<V> result = Sinks.one();
+        private int waiters;
+        private boolean abandoned;
+        private Disposable upstream;
+
+        /**
+         * Adds a subscriber, unless every previous one already left and the call was cancelled.
+         */
+        private synchronized boolean join() {
+            if (abandoned) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        private void start(Mono<V> call) {
+            Disposable subscription = call.subscribe(result::tryEmitValue, result::tryEmitError, result::tryEmitEmpty);
+            synchronized (this) {
+                if (!abandoned) {
+                    upstream = subscription;
+                    return;
+                }
+            }
+            subscription.dispose();
+        }
+
+        /**
+         * Removes a subscriber that cancelled; returns true when it was the last one and the call was cancelled.
+         */
+        private boolean leave() {
+            Disposable subscription;
+            synchronized (this) {
+                if (abandoned || --waiters > 0) {
+                    return false;
+                }
+                abandoned = true;
+                subscription = upstream;
+            }
+            if (subscription != null) {
+                subscription.dispose();
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dev.example.visa.client;
+
+import dev.example.visa.config.StartupWarmup;
+import dev.example.visa.security.SecretRotationEvent;
+import dev.example.visa.security.SecretSnapshot;
+import dev.example.visa.security.VaultService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.filter.ClientFilterChain;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class VisaAuthenticationInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VaultService vaultService = mock(VaultService.class);
+    private final ClientFilterChain chain = mock(ClientFilterChain.class);
+    private final VisaAuthenticationInterceptor interceptor = new VisaAuthenticationInterceptor(vaultService, meterRegistry);
+
+    @Test
+    void headerIsReusedWithinOneCredentialsVersion() {
+        when(vaultService.cachedSnapshot()).thenReturn(Optional.of(snapshot(1, "key-1", "secret-1")));
+
+        assertEquals(basic("key-1", "secret-1"), send());
+        assertEquals(basic("key-1", "secret-1"), send());
+        assertEquals(basic("key-1", "secret-1"), send());
+
+        assertEquals(1.0, rebuilds());
+    }
+
+    @Test
+    void headerIsRebuiltWhenTheVersionChanges() {
+        when(vaultService.cachedSnapshot()).thenReturn(Optional.of(snapshot(1, "key-1", "secret-1")));
+        send();
+
+        when(vaultService.cachedSnapshot()).thenReturn(Optional.of(snapshot(2, "key-2", "secret-2")));
+
+        assertEquals(basic("key-2", "secret-2"), send());
+        assertEquals(2.0, rebuilds());
+    }
+
+    @Test
+    void headerIsRebuiltOnRotationEventAheadOfTheNextRequest() {
+        SecretSnapshot previous = snapshot(1, "key-1", "secret-1");
+        SecretSnapshot current = snapshot(2, "key-2", "secret-2");
+        when(vaultService.cachedSnapshot()).thenReturn(Optional.of(previous));
+        send();
+
+        interceptor.onApplicationEvent(new SecretRotationEvent(previous, current));
+        assertEquals(2.0, rebuilds());
+
+        when(vaultService.cachedSnapshot()).thenReturn(Optional.of(current));
+        assertEquals(basic("key-2", "secret-2"), send());
+        assertEquals(2.0, rebuilds());
+    }
+
+    @Test
+    void olderRebuildNeverReplacesNewerHeader() {
+        SecretSnapshot older = snapshot(1, "key-1", "secret-1");
+        SecretSnapshot newer = snapshot(2, "key-2", "secret-2");
+        interceptor.onApplicationEvent(new SecretRotationEvent(older, newer));
+
+        // A request that read the older snapshot before the rotation finishes after it
+        when(vaultService.cachedSnapshot()).thenReturn(Optional.of(older));
+
+        assertEquals(basic("key-2", "secret-2"), send());
+        assertEquals(1.0, rebuilds());
+    }
+
+    @Test
+    void coldPathWaitsForTheFirstSnapshot() {
+        when(vaultService.cachedSnapshot()).thenReturn(Optional.empty());
+        when(vaultService.getSnapshot()).thenReturn(Mono.just(snapshot(1, "key-1", "secret-1")));
+
+        MutableHttpRequest<?> request = HttpRequest.GET("/status");
+        doReturn(Mono.empty()).when(chain).proceed(any(MutableHttpRequest.class));
+        Mono.from(interceptor.doFilter(request, chain)).block();
+
+        assertEquals(basic("key-1", "secret-1"), request.getHeaders().get("Authorization"));
+    }
+
+    @Test
+    void warmupRequestIsSentWithoutCredentials() {
+        MutableHttpRequest<?> request = HttpRequest.HEAD("/").setAttribute(StartupWarmup.WARMUP_ATTRIBUTE, true);
+        doReturn(Mono.empty()).when(chain).proceed(any(MutableHttpRequest.class));
+
+        interceptor.doFilter(request, chain);
+
+        assertNull(request.getHeaders().get("Authorization"));
+        verifyNoInteractions(vaultService);
+    }
+
+    private String send() {
+        MutableHttpRequest<?> request = HttpRequest.GET("/status");
+        doReturn(Mono.empty()).when(chain).proceed(any(MutableHttpRequest.class));
+        interceptor.doFilter(request, chain);
+        return request.getHeaders().get("Authorization");
+    }
+
+    private double rebuilds() {
+        return meterRegistry.counter("visa.auth.header.rebuilds").count();
+    }
+
+    private static SecretSnapshot snapshot(long version, String apiKey, String apiSecret) {
+        return new SecretSnapshot(Map.of("api_key", apiKey, "api_secret", apiSecret), version, Instant.now(), null);
+    }
+
+    private static String basic(String apiKey, String apiSecret) {
+        return "Basic " + Base64.getEncoder()
+                .encodeToString((apiKey + ":" + apiSecret).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,60 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.core.value.MapPropertyResolver;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VisaBulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VisaBulkheads bulkheads = new VisaBulkheads(true, 2, 1, Duration.ofMillis(100),
+            new MapPropertyResolver(Map.of("visa.api.bulkhead.operations.get-data.max-concurrent", 1)),
+            meterRegistry);
+
+    @Test
+    void aSaturatedOperationDoesNotBlockTheOthers() {
+        Sinks.One<String> slow = Sinks.one();
+        bulkheads.execute(VisaOperation.GET_DATA, slow::asMono).subscribe();
+        assertEquals(1, bulkheads.active(VisaOperation.GET_DATA));
+        assertEquals(1.0, meterRegistry.get("visa.bulkhead.saturation").tag("operation", "getData").gauge().value());
+
+        StepVerifier.create(bulkheads.execute(VisaOperation.GET_DATA, () -> Mono.just("queued")))
+                .expectErrorSatisfies(e -> assertEquals("bulkhead-full", ((VisaCallRejectedException) e).getReason()))
+                .verify(Duration.ofSeconds(1));
+        StepVerifier.create(bulkheads.execute(VisaOperation.ENROLL_DATA, () -> Mono.just("enrolled")))
+                .expectNext("enrolled")
+                .verifyComplete();
+
+        slow.tryEmitValue("done");
+        assertEquals(0, bulkheads.active(VisaOperation.GET_DATA));
+        assertEquals(1.0, meterRegistry.counter("visa.bulkhead.rejections", "operation", "getData").count());
+    }
+
+    @Test
+    void queuedCallRunsWhenASlotIsFreed() {
+        Sinks.One<String> first = Sinks.one();
+        bulkheads.execute(VisaOperation.GET_DATA, first::asMono).subscribe();
+
+        StepVerifier.create(bulkheads.execute(VisaOperation.GET_DATA, () -> Mono.just("second")))
+                .then(() -> first.tryEmitValue("first"))
+                .expectNext("second")
+                .verifyComplete();
+        assertEquals(0, bulkheads.active(VisaOperation.GET_DATA));
+    }
+
+    @Test
+    void cancelledCallsGiveTheirSlotBack() {
+        bulkheads.execute(VisaOperation.REQUEST_STATUS, Mono::<String>never).subscribe().dispose();
+        bulkheads.execute(VisaOperation.REQUEST_STATUS, Mono::<String>never).subscribe().dispose();
+
+        assertEquals(0, bulkheads.active(VisaOperation.REQUEST_STATUS));
+    }
+}
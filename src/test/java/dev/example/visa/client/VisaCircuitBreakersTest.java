@@ -0,0 +1,114 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.exceptions.HttpClientException;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.codec.CodecException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VisaCircuitBreakersTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VisaCircuitBreakers breakers = new VisaCircuitBreakers(true, 4, 4, 50, Duration.ofSeconds(1), 80,
+            Duration.ofMillis(100), 2, meterRegistry);
+
+    @Test
+    void opensOnFailureRateAndFailsFast() {
+        fail(VisaOperation.ENROLL_DATA, 2);
+        succeed(VisaOperation.ENROLL_DATA, 2);
+        assertEquals(VisaCircuitBreakers.State.OPEN, breakers.state(VisaOperation.ENROLL_DATA));
+
+        AtomicInteger calls = new AtomicInteger();
+        StepVerifier.create(breakers.execute(VisaOperation.ENROLL_DATA,
+                        () -> Mono.fromCallable(calls::incrementAndGet)))
+                .expectErrorSatisfies(e -> assertEquals("circuit-open", ((VisaCallRejectedException) e).getReason()))
+                .verify(Duration.ofSeconds(1));
+        assertEquals(0, calls.get());
+        assertEquals(VisaCircuitBreakers.State.CLOSED, breakers.state(VisaOperation.GET_DATA));
+        assertEquals(1.0, meterRegistry.counter("visa.circuit.transitions",
+                "operation", "enrollData", "from", "closed", "to", "open").count());
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheBreaker() {
+        HttpClientResponseException badRequest =
+                new HttpClientResponseException("Bad Request", HttpResponse.status(HttpStatus.BAD_REQUEST));
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(breakers.execute(VisaOperation.GET_DATA, () -> Mono.error(badRequest)))
+                    .expectError(HttpClientResponseException.class)
+                    .verify(Duration.ofSeconds(1));
+        }
+        assertEquals(VisaCircuitBreakers.State.CLOSED, breakers.state(VisaOperation.GET_DATA));
+    }
+
+    @Test
+    void decodeErrorsDoNotOpenTheBreaker() {
+        CodecException decodeError = new CodecException("Error decoding JSON stream", new IOException("Unexpected token"));
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(breakers.execute(VisaOperation.GET_DATA, () -> Mono.error(decodeError)))
+                    .expectError(CodecException.class)
+                    .verify(Duration.ofSeconds(1));
+        }
+        assertEquals(VisaCircuitBreakers.State.CLOSED, breakers.state(VisaOperation.GET_DATA));
+    }
+
+    @Test
+    void wrappedConnectionFailuresOpenTheBreaker() {
+        HttpClientException connectError = new HttpClientException("Connect Error", new ConnectException("Connection refused"));
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(breakers.execute(VisaOperation.GET_DATA, () -> Mono.error(connectError)))
+                    .expectError(HttpClientException.class)
+                    .verify(Duration.ofSeconds(1));
+        }
+        assertEquals(VisaCircuitBreakers.State.OPEN, breakers.state(VisaOperation.GET_DATA));
+    }
+
+    @Test
+    void closesAfterSuccessfulProbes() throws InterruptedException {
+        fail(VisaOperation.REQUEST_STATUS, 4);
+        assertEquals(VisaCircuitBreakers.State.OPEN, breakers.state(VisaOperation.REQUEST_STATUS));
+
+        Thread.sleep(150);
+        succeed(VisaOperation.REQUEST_STATUS, 1);
+        assertEquals(VisaCircuitBreakers.State.HALF_OPEN, breakers.state(VisaOperation.REQUEST_STATUS));
+        succeed(VisaOperation.REQUEST_STATUS, 1);
+        assertEquals(VisaCircuitBreakers.State.CLOSED, breakers.state(VisaOperation.REQUEST_STATUS));
+    }
+
+    @Test
+    void reopensWhenAProbeFails() throws InterruptedException {
+        fail(VisaOperation.REQUEST_STATUS, 4);
+        Thread.sleep(150);
+        fail(VisaOperation.REQUEST_STATUS, 1);
+        assertEquals(VisaCircuitBreakers.State.OPEN, breakers.state(VisaOperation.REQUEST_STATUS));
+    }
+
+    private void fail(VisaOperation operation, int times) {
+        HttpClientResponseException unavailable =
+                new HttpClientResponseException("Service Unavailable", HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE));
+        for (int i = 0; i < times; i++) {
+            StepVerifier.create(breakers.execute(operation, () -> Mono.error(unavailable)))
+                    .expectError(HttpClientResponseException.class)
+                    .verify(Duration.ofSeconds(1));
+        }
+    }
+
+    private void succeed(VisaOperation operation, int times) {
+        for (int i = 0; i < times; i++) {
+            StepVerifier.create(breakers.execute(operation, () -> Mono.just("ok")))
+                    .expectNext("ok")
+                    .verifyComplete();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VisaConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void rejectsCallsOverTheLimitWhenQueueingIsDisabled() {
+        VisaConcurrencyLimiter limiter = limiter(2, 0, Duration.ZERO);
+
+        Disposable first = limiter.execute(VisaOperation.GET_DATA, Mono::never).subscribe();
+        Disposable second = limiter.execute(VisaOperation.GET_DATA, Mono::never).subscribe();
+
+        StepVerifier.create(limiter.execute(VisaOperation.GET_DATA, () -> Mono.just("late")))
+                .expectError(VisaCallRejectedException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(2, limiter.inFlight());
+        assertEquals(1.0, meterRegistry.counter("visa.concurrency.rejections", "operation", "getData").count());
+
+        first.dispose();
+        second.dispose();
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void queuedCallRunsOnceASlotIsReleased() {
+        VisaConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        Sinks.One<String> slow = Sinks.one();
+
+        limiter.execute(VisaOperation.ENROLL_DATA, slow::asMono).subscribe();
+
+        StepVerifier.create(limiter.execute(VisaOperation.ENROLL_DATA, () -> Mono.just("queued")))
+                .then(() -> slow.tryEmitValue("slow"))
+                .expectNext("queued")
+                .verifyComplete();
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void queuedCallIsRejectedWhenTheWaitRunsOut() {
+        VisaConcurrencyLimiter limiter = limiter(1, 1, Duration.ofMillis(50));
+
+        Disposable blocking = limiter.execute(VisaOperation.ENROLL_DATA, Mono::never).subscribe();
+
+        StepVerifier.create(limiter.execute(VisaOperation.ENROLL_DATA, () -> Mono.just("queued")))
+                .expectError(VisaCallRejectedException.class)
+                .verify(Duration.ofSeconds(1));
+        blocking.dispose();
+    }
+
+    @Test
+    void overloadResponsesShrinkTheLimit() {
+        VisaConcurrencyLimiter limiter = new VisaConcurrencyLimiter(true, 20, 4, 200, 1.5, 0.2, 600, 0,
+                Duration.ZERO, meterRegistry);
+        HttpClientResponseException unavailable =
+                new HttpClientResponseException("Service Unavailable", HttpResponse.status(HttpStatus.SERVICE_UNAVAILABLE));
+
+        for (int i = 0; i < 10; i++) {
+            StepVerifier.create(limiter.execute(VisaOperation.REQUEST_STATUS, () -> Mono.error(unavailable)))
+                    .expectError(HttpClientResponseException.class)
+                    .verify(Duration.ofSeconds(1));
+        }
+
+        assertTrue(limiter.limit() < 20, "limit should have been reduced but is " + limiter.limit());
+        assertTrue(limiter.limit() >= 4);
+    }
+
+    private VisaConcurrencyLimiter limiter(int limit, int maxQueued, Duration queueTimeout) {
+        return new VisaConcurrencyLimiter(true, limit, limit, limit, 1.5, 0.2, 600, maxQueued, queueTimeout,
+                meterRegistry);
+    }
+}
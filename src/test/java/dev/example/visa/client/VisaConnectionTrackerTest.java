@@ -0,0 +1,146 @@
+package dev.example.visa.client;
+
+import dev.example.visa.security.TlsMaterial;
+import dev.example.visa.security.TlsMaterialRotationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.netty.channel.ChannelPipelineCustomizer;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class VisaConnectionTrackerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VisaTlsSessionTracker sessionTracker = mock(VisaTlsSessionTracker.class);
+    private final VisaConnectionTracker tracker = new VisaConnectionTracker("https://sandbox.api.visa.com",
+            Duration.ZERO, Duration.ZERO, sessionTracker, meterRegistry);
+    private final List<EmbeddedChannel> channels = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        channels.forEach(EmbeddedChannel::finishAndReleaseAll);
+    }
+
+    @Test
+    void testRotationClosesIdleConnectionsOpenedWithOlderMaterial() {
+        EmbeddedChannel preRotation = connection();
+        tracker.onTlsMaterialRotation(rotation(1));
+        EmbeddedChannel postRotation = connection();
+
+        preRotation.runScheduledPendingTasks();
+        postRotation.runScheduledPendingTasks();
+
+        verify(sessionTracker).invalidateSessions();
+        assertFalse(preRotation.isOpen());
+        assertTrue(postRotation.isOpen());
+        assertEquals(1.0, meterRegistry.counter("visa.http.connections.retired").count());
+    }
+
+    @Test
+    void testDrainingConnectionSendsConnectionCloseAndClosesAfterLastResponse() {
+        EmbeddedChannel channel = connection();
+        HttpRequest first = request();
+        channel.writeOutbound(first);
+
+        tracker.onTlsMaterialRotation(rotation(1));
+        channel.runScheduledPendingTasks();
+        assertTrue(channel.isOpen());
+
+        HttpRequest second = request();
+        channel.writeOutbound(second);
+        assertNull(first.headers().get(HttpHeaderNames.CONNECTION));
+        assertEquals("close", second.headers().get(HttpHeaderNames.CONNECTION));
+
+        respond(channel);
+        assertTrue(channel.isOpen());
+        respond(channel);
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    void testConnectionOpenedWithCurrentMaterialKeepsServing() {
+        tracker.onTlsMaterialRotation(rotation(1));
+        EmbeddedChannel channel = connection();
+        tracker.onTlsMaterialRotation(rotation(1));
+        channel.runScheduledPendingTasks();
+
+        HttpRequest request = request();
+        channel.writeOutbound(request);
+        respond(channel);
+
+        assertTrue(channel.isOpen());
+        assertNull(request.headers().get(HttpHeaderNames.CONNECTION));
+    }
+
+    @Test
+    void testRequestIsPendingUntilItIsWrittenToAConnection() {
+        EmbeddedChannel channel = connection();
+        HttpRequest request = request();
+        tracker.submit();
+        assertEquals(1.0, pending());
+
+        channel.writeOutbound(request);
+        assertEquals(0.0, pending());
+        assertEquals(1.0, meterRegistry.get("visa.http.pool.connections").tag("state", "active").gauge().value());
+
+        respond(channel);
+        tracker.complete();
+        assertEquals(0.0, pending());
+        assertEquals(0.0, meterRegistry.get("visa.http.pool.connections").tag("state", "active").gauge().value());
+    }
+
+    @Test
+    void testRequestThatFailsBeforeItIsWrittenIsNoLongerPending() {
+        tracker.submit();
+        tracker.submit();
+        assertEquals(2.0, pending());
+
+        tracker.complete();
+        assertEquals(1.0, pending());
+    }
+
+    private double pending() {
+        return meterRegistry.get("visa.http.pool.pending").gauge().value();
+    }
+
+    private EmbeddedChannel connection() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast(ChannelPipelineCustomizer.HANDLER_HTTP_CLIENT_CODEC, new HttpClientCodec());
+        tracker.track(channel);
+        channels.add(channel);
+        return channel;
+    }
+
+    private static HttpRequest request() {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/status");
+    }
+
+    private static void respond(EmbeddedChannel channel) {
+        channel.writeInbound(Unpooled.copiedBuffer("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n",
+                StandardCharsets.US_ASCII));
+    }
+
+    private static TlsMaterialRotationEvent rotation(long version) {
+        return new TlsMaterialRotationEvent(new TlsMaterial(null, null, null, version - 1),
+                new TlsMaterial(null, null, null, version));
+    }
+}
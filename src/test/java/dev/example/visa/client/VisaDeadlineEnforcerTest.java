@@ -0,0 +1,65 @@
+package dev.example.visa.client;
+
+import dev.example.visa.util.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VisaDeadlineEnforcerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VisaDeadlineEnforcer enforcer = new VisaDeadlineEnforcer(meterRegistry);
+
+    @Test
+    void cancelsTheCallAtTheDeadlineAndSendsNoAnswer() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> call = enforcer.execute(VisaOperation.ENROLL_DATA,
+                () -> Mono.<String>never().doOnCancel(() -> cancelled.set(true)));
+
+        StepVerifier.create(enforcer.within(VisaOperation.ENROLL_DATA, Deadline.after(Duration.ofMillis(50)), call))
+                .verifyComplete();
+
+        assertTrue(cancelled.get());
+        assertEquals(1.0, meterRegistry.counter("visa.deadline.expired",
+                "operation", "enrollData", "stage", "in-flight").count());
+        assertEquals(1, meterRegistry.timer("visa.deadline.wasted", "operation", "enrollData").count());
+    }
+
+    @Test
+    void doesNotStartWorkWhoseDeadlineHasPassed() {
+        AtomicInteger calls = new AtomicInteger();
+        Mono<Integer> call = enforcer.execute(VisaOperation.GET_DATA, () -> Mono.just(calls.incrementAndGet()));
+
+        StepVerifier.create(enforcer.within(VisaOperation.GET_DATA, Deadline.after(Duration.ofMillis(-1)), call))
+                .verifyComplete();
+
+        assertEquals(0, calls.get());
+        assertEquals(1.0, meterRegistry.counter("visa.deadline.expired",
+                "operation", "getData", "stage", "arrival").count());
+    }
+
+    @Test
+    void answersInTimeAndLeavesCallsWithoutDeadlineAlone() {
+        Mono<String> call = enforcer.execute(VisaOperation.REQUEST_STATUS,
+                () -> Mono.delay(Duration.ofMillis(20)).thenReturn("ok"));
+
+        StepVerifier.create(enforcer.within(VisaOperation.REQUEST_STATUS, Deadline.after(Duration.ofSeconds(5)), call))
+                .expectNext("ok")
+                .verifyComplete();
+        StepVerifier.create(call)
+                .expectNext("ok")
+                .verifyComplete();
+
+        assertFalse(meterRegistry.find("visa.deadline.expired").counters().stream()
+                .anyMatch(counter -> counter.count() > 0));
+    }
+}
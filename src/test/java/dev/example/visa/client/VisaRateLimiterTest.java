@@ -0,0 +1,74 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.core.value.MapPropertyResolver;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VisaRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void callsOverTheBurstWaitForTheNextToken() {
+        VisaRateLimiter limiter = limiter(Map.of());
+        call(limiter, VisaOperation.ENROLL_DATA);
+        call(limiter, VisaOperation.ENROLL_DATA);
+
+        long start = System.nanoTime();
+        call(limiter, VisaOperation.ENROLL_DATA);
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 40);
+    }
+
+    @Test
+    void rejectsCallsThatWouldWaitTooLong() {
+        VisaRateLimiter limiter = limiter(Map.of("visa.api.rate-limit.operations.get-data.rate", 1,
+                "visa.api.rate-limit.operations.get-data.burst", 1));
+        call(limiter, VisaOperation.GET_DATA);
+
+        StepVerifier.create(limiter.execute(VisaOperation.GET_DATA, () -> Mono.just("late")))
+                .expectErrorSatisfies(e -> assertEquals("rate-limit", ((VisaCallRejectedException) e).getReason()))
+                .verify(Duration.ofSeconds(1));
+        // Other operations have their own bucket
+        call(limiter, VisaOperation.REQUEST_STATUS);
+        assertEquals(1.0, meterRegistry.counter("visa.ratelimit.rejections", "operation", "getData").count());
+    }
+
+    @Test
+    void throttlingLowersTheRateAndHonoursRetryAfter() {
+        VisaRateLimiter limiter = limiter(Map.of());
+        HttpClientResponseException throttled = new HttpClientResponseException("Too Many Requests",
+                HttpResponse.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "5"));
+
+        StepVerifier.create(limiter.execute(VisaOperation.REQUEST_STATUS, () -> Mono.error(throttled)))
+                .expectError(HttpClientResponseException.class)
+                .verify(Duration.ofSeconds(1));
+
+        assertTrue(limiter.rate(VisaOperation.REQUEST_STATUS) < 11);
+        StepVerifier.create(limiter.execute(VisaOperation.REQUEST_STATUS, () -> Mono.just("paused")))
+                .expectError(VisaCallRejectedException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1.0, meterRegistry.counter("visa.ratelimit.throttled", "operation", "requestStatus").count());
+    }
+
+    private VisaRateLimiter limiter(Map<String, Object> overrides) {
+        return new VisaRateLimiter(true, 100, 10, 20, 2, Duration.ofMillis(200), 10, 0.5, Duration.ofMinutes(1),
+                new MapPropertyResolver(overrides), meterRegistry);
+    }
+
+    private static void call(VisaRateLimiter limiter, VisaOperation operation) {
+        StepVerifier.create(limiter.execute(operation, () -> Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+}
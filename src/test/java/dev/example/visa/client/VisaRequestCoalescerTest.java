@@ -0,0 +1,117 @@
+package dev.example.visa.client;
+
+import dev.example.visa.util.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VisaRequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VisaRequestCoalescer coalescer = new VisaRequestCoalescer(true, meterRegistry);
+
+    @Test
+    void concurrentIdenticalCallsShareOneVisaCall() {
+        Sinks.One<String> visa = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> status = coalescer.execute(VisaOperation.REQUEST_STATUS, "trace-1", () -> {
+            calls.incrementAndGet();
+            return visa.asMono();
+        });
+
+        StepVerifier.create(Mono.zip(status, status, status))
+                .then(() -> visa.tryEmitValue("COMPLETED"))
+                .assertNext(results -> assertEquals("COMPLETED", results.getT3()))
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(0, coalescer.inFlightCount());
+        assertEquals(2.0 / 3, meterRegistry.get("visa.coalescing.dedup-ratio")
+                .tag("operation", "requestStatus").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void shortDeadlineOfTheFirstCallerDoesNotFailALaterCaller() {
+        VisaDeadlineEnforcer deadlineEnforcer = new VisaDeadlineEnforcer(meterRegistry);
+        Sinks.One<String> visa = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<Optional<Deadline>> sharedDeadline = new AtomicReference<>();
+        Mono<String> status = coalescer.execute(VisaOperation.REQUEST_STATUS, "trace-1",
+                () -> Mono.deferContextual(context -> {
+                    calls.incrementAndGet();
+                    sharedDeadline.set(Deadline.current(context));
+                    return visa.asMono();
+                }));
+
+        StepVerifier shortCaller = StepVerifier.create(deadlineEnforcer.execute(VisaOperation.REQUEST_STATUS, () -> status)
+                        .contextWrite(Context.of(Deadline.class, Deadline.after(Duration.ofMillis(50)))))
+                .expectError(VisaDeadlineExceededException.class)
+                .verifyLater();
+        StepVerifier longCaller = StepVerifier.create(deadlineEnforcer.execute(VisaOperation.REQUEST_STATUS, () -> status)
+                        .contextWrite(Context.of(Deadline.class, Deadline.after(Duration.ofSeconds(5)))))
+                .expectNext("COMPLETED")
+                .expectComplete()
+                .verifyLater();
+
+        shortCaller.verify(Duration.ofSeconds(1));
+        assertEquals(1, coalescer.inFlightCount());
+        visa.tryEmitValue("COMPLETED");
+        longCaller.verify(Duration.ofSeconds(1));
+
+        assertEquals(1, calls.get());
+        assertTrue(sharedDeadline.get().isEmpty());
+    }
+
+    @Test
+    void sharedCallIsCancelledWhenTheLastWaiterLeaves() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mono<String> status = coalescer.execute(VisaOperation.REQUEST_STATUS, "trace-1",
+                () -> Mono.<String>never().doOnCancel(() -> cancelled.set(true)));
+
+        Disposable first = status.subscribe();
+        Disposable second = status.subscribe();
+        first.dispose();
+        assertFalse(cancelled.get());
+        assertEquals(1, coalescer.inFlightCount());
+
+        second.dispose();
+        assertTrue(cancelled.get());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void differentParametersAndOperationsThatChangeDataAreNotCoalesced() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> visa = Sinks.one();
+
+        StepVerifier.create(Mono.zip(
+                        coalescer.execute(VisaOperation.GET_DATA, "consumer-1", () -> count(calls, visa)),
+                        coalescer.execute(VisaOperation.GET_DATA, "consumer-2", () -> count(calls, visa)),
+                        coalescer.execute(VisaOperation.ENROLL_DATA, "consumer-1", () -> count(calls, visa)),
+                        coalescer.execute(VisaOperation.ENROLL_DATA, "consumer-1", () -> count(calls, visa))))
+                .then(() -> visa.tryEmitValue("ok"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(4, calls.get());
+    }
+
+    private static Mono<String> count(AtomicInteger calls, Sinks.One<String> visa) {
+        calls.incrementAndGet();
+        return visa.asMono();
+    }
+}
@@ -0,0 +1,110 @@
+package dev.example.visa.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VisaRequestHedgerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VisaRequestHedger hedger = new VisaRequestHedger(true, 0.5, Duration.ofMillis(20), 10, 1, 0, 1,
+            meterRegistry);
+
+    @Test
+    void hedgeAnswersWhenTheFirstAttemptIsSlowAndTheLoserIsCancelled() {
+        observeFastCall(VisaOperation.REQUEST_STATUS);
+
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+        StepVerifier.create(hedger.execute(VisaOperation.REQUEST_STATUS, () -> attempts.incrementAndGet() == 1
+                        ? Mono.<String>never().doOnCancel(() -> primaryCancelled.set(true))
+                        : Mono.just("hedge")))
+                .expectNext("hedge")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertTrue(primaryCancelled.get());
+        assertEquals(1.0, meterRegistry.counter("visa.hedge.sent", "operation", "requestStatus").count());
+        assertEquals(1.0, meterRegistry.counter("visa.hedge.wins", "operation", "requestStatus").count());
+        assertEquals(2, hedger.observedLatencies(VisaOperation.REQUEST_STATUS));
+    }
+
+    @Test
+    void cancelledCallsAreSampledAsLowerBound() {
+        observeFastCall(VisaOperation.GET_DATA);
+
+        StepVerifier.create(hedger.execute(VisaOperation.GET_DATA, () -> Mono.<String>never()))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(10))
+                .thenCancel()
+                .verify();
+
+        assertEquals(2, hedger.observedLatencies(VisaOperation.GET_DATA));
+    }
+
+    @Test
+    void hedgeDelayDoesNotShrinkWhileHedgesKeepWinning() {
+        VisaRequestHedger generous = new VisaRequestHedger(true, 0.5, Duration.ofMillis(5), 10, 1, 1, 100,
+                meterRegistry);
+        StepVerifier.create(generous.execute(VisaOperation.GET_DATA,
+                        () -> Mono.delay(Duration.ofMillis(30)).thenReturn("slow")))
+                .expectNext("slow")
+                .verifyComplete();
+        long initialDelay = generous.hedgeDelayNanos(VisaOperation.GET_DATA);
+        assertTrue(initialDelay >= Duration.ofMillis(30).toNanos());
+
+        // Enough winning hedges for the delay to be recomputed from them
+        AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 60; i++) {
+            StepVerifier.create(generous.execute(VisaOperation.GET_DATA, () -> attempts.incrementAndGet() % 2 == 1
+                            ? Mono.<String>never()
+                            : Mono.just("hedge")))
+                    .expectNext("hedge")
+                    .verifyComplete();
+            assertTrue(generous.hedgeDelayNanos(VisaOperation.GET_DATA) >= initialDelay);
+        }
+        assertEquals(60.0, meterRegistry.counter("visa.hedge.wins", "operation", "getData").count());
+    }
+
+    @Test
+    void budgetBoundsTheNumberOfHedges() {
+        observeFastCall(VisaOperation.GET_DATA);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(hedger.execute(VisaOperation.GET_DATA,
+                            () -> attempts.incrementAndGet() % 2 == 1
+                                    ? Mono.delay(Duration.ofMillis(200)).thenReturn("primary")
+                                    : Mono.just("hedge")))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        assertEquals(1.0, meterRegistry.counter("visa.hedge.sent", "operation", "getData").count());
+    }
+
+    @Test
+    void operationsThatChangeDataAreNeverHedged() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(hedger.execute(VisaOperation.ENROLL_DATA,
+                        () -> Mono.delay(Duration.ofMillis(100)).thenReturn(attempts.incrementAndGet())))
+                .expectNext(1)
+                .verifyComplete();
+        assertEquals(1, attempts.get());
+    }
+
+    private void observeFastCall(VisaOperation operation) {
+        StepVerifier.create(hedger.execute(operation, () -> Mono.just("fast")))
+                .expectNext("fast")
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,125 @@
+package dev.example.visa.client;
+
+import dev.example.visa.util.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.http.codec.CodecException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VisaRetryExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void retriesReadOnlyOperationsOnServerErrors() {
+        VisaRetryExecutor retry = retry(3, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(retry.execute(VisaOperation.GET_DATA, () -> calls.incrementAndGet() < 3
+                        ? Mono.error(failure(HttpStatus.INTERNAL_SERVER_ERROR))
+                        : Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void doesNotRetryDecodeErrors() {
+        VisaRetryExecutor retry = retry(3, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(retry.execute(VisaOperation.GET_DATA, () -> {
+                    calls.incrementAndGet();
+                    return Mono.error(new CodecException("Error decoding JSON stream", new IOException("Unexpected token")));
+                }))
+                .expectError(CodecException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void retriesOperationsThatChangeDataOnlyWhenVisaDidNotProcessThem() {
+        VisaRetryExecutor retry = retry(3, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(retry.execute(VisaOperation.ENROLL_DATA, () -> {
+                    calls.incrementAndGet();
+                    return Mono.error(failure(HttpStatus.INTERNAL_SERVER_ERROR));
+                }))
+                .expectError(HttpClientResponseException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1, calls.get());
+
+        calls.set(0);
+        StepVerifier.create(retry.execute(VisaOperation.ENROLL_DATA, () -> calls.incrementAndGet() < 2
+                        ? Mono.error(failure(HttpStatus.SERVICE_UNAVAILABLE))
+                        : Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void stopsRetryingWhenTheBudgetIsExhausted() {
+        VisaRetryExecutor retry = retry(5, 1);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(retry.execute(VisaOperation.REQUEST_STATUS, () -> {
+                    calls.incrementAndGet();
+                    return Mono.error(failure(HttpStatus.BAD_GATEWAY));
+                }))
+                .expectError(HttpClientResponseException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.counter("visa.retry.skipped",
+                "operation", "requestStatus", "reason", "budget-exhausted").count());
+    }
+
+    @Test
+    void doesNotRetryWhenTheBackoffOutlastsTheDeadline() {
+        VisaRetryExecutor retry = new VisaRetryExecutor(3, Duration.ofSeconds(1), 2, Duration.ofSeconds(10), 0, 10,
+                meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        HttpClientResponseException throttled = new HttpClientResponseException("Too Many Requests",
+                HttpResponse.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "5"));
+
+        StepVerifier.create(retry.execute(VisaOperation.GET_DATA, () -> {
+                            calls.incrementAndGet();
+                            return Mono.<String>error(throttled);
+                        })
+                        .contextWrite(Context.of(Deadline.class, Deadline.after(Duration.ofSeconds(2)))))
+                .expectError(HttpClientResponseException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1, calls.get());
+        assertEquals(1.0, meterRegistry.counter("visa.retry.skipped",
+                "operation", "getData", "reason", "deadline").count());
+    }
+
+    @Test
+    void readsRetryAfterInSeconds() {
+        HttpClientResponseException throttled = new HttpClientResponseException("Too Many Requests",
+                HttpResponse.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "7"));
+
+        assertEquals(Duration.ofSeconds(7), VisaRetryExecutor.retryAfter(throttled).orElseThrow());
+    }
+
+    private VisaRetryExecutor retry(int maxAttempts, double budgetTokens) {
+        return new VisaRetryExecutor(maxAttempts, Duration.ofMillis(1), 2, Duration.ofSeconds(1), 0, budgetTokens,
+                meterRegistry);
+    }
+
+    private static HttpClientResponseException failure(HttpStatus status) {
+        return new HttpClientResponseException(status.getReason(), HttpResponse.status(status));
+    }
+}
@@ -0,0 +1,33 @@
+package dev.example.visa.client;
+
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VisaTlsSessionTrackerTest {
+
+    private final SSLEngine engine = mock(SSLEngine.class);
+    private final SSLSession session = mock(SSLSession.class);
+
+    @Test
+    void testSessionCreatedBeforeHandshakeStartIsResumed() {
+        when(session.getCreationTime()).thenReturn(1_000L);
+
+        assertTrue(VisaTlsSessionTracker.isResumed(engine, session, 5_000L));
+    }
+
+    @Test
+    void testSessionCreatedDuringHandshakeIsFull() {
+        when(session.getCreationTime()).thenReturn(5_000L);
+
+        assertFalse(VisaTlsSessionTracker.isResumed(engine, session, 5_000L));
+        when(session.getCreationTime()).thenReturn(5_020L);
+        assertFalse(VisaTlsSessionTracker.isResumed(engine, session, 5_000L));
+    }
+}
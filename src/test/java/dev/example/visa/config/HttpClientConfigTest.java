@@ -0,0 +1,33 @@
+package dev.example.visa.config;
+
+import io.netty.handler.ssl.SslProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for resolving the TLS provider of the Visa client.
+ */
+class HttpClientConfigTest {
+
+    @Test
+    void testAutoPrefersOpenSslWhenAvailable() {
+        assertEquals(SslProvider.OPENSSL, HttpClientConfig.resolveTlsProvider(TlsProviderMode.AUTO, () -> true));
+    }
+
+    @Test
+    void testAutoFallsBackToJdk() {
+        assertEquals(SslProvider.JDK, HttpClientConfig.resolveTlsProvider(TlsProviderMode.AUTO, () -> false));
+    }
+
+    @Test
+    void testOpenSslFallsBackToJdkOnlyWhenUnavailable() {
+        assertEquals(SslProvider.OPENSSL, HttpClientConfig.resolveTlsProvider(TlsProviderMode.OPENSSL, () -> true));
+        assertEquals(SslProvider.JDK, HttpClientConfig.resolveTlsProvider(TlsProviderMode.OPENSSL, () -> false));
+    }
+
+    @Test
+    void testJdkIgnoresOpenSsl() {
+        assertEquals(SslProvider.JDK, HttpClientConfig.resolveTlsProvider(TlsProviderMode.JDK, () -> true));
+    }
+}
@@ -0,0 +1,115 @@
+package dev.example.visa.config;
+
+import dev.example.visa.mappers.VisaMapper;
+import dev.example.visa.security.CertificateManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.context.BeanProvider;
+import io.micronaut.health.HealthStatus;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for holding messages back until the warm-up finished and for the warm-up readiness check.
+ */
+class StartupWarmupTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HttpClient visaHttpClient = mock(HttpClient.class);
+    private final CertificateManager certificateManager = mock(CertificateManager.class);
+
+    @Test
+    void testGateHoldsWorkUntilWarmupIsReady() {
+        Sinks.One<Boolean> certificates = Sinks.one();
+        when(certificateManager.ready()).thenReturn(certificates.asMono());
+        doReturn(Mono.empty()).when(visaHttpClient).exchange(any(HttpRequest.class));
+        StartupWarmup warmup = warmup(2, "/", Duration.ofSeconds(10));
+        warmup.onStartup(null);
+
+        AtomicBoolean handled = new AtomicBoolean();
+        warmup.gate(Mono.fromRunnable(() -> handled.set(true))).subscribe();
+        assertFalse(handled.get());
+        assertTrue(warmup.result().isEmpty());
+
+        certificates.tryEmitValue(true);
+
+        StepVerifier.create(warmup.ready())
+                .assertNext(result -> {
+                    assertTrue(result.completed());
+                    assertEquals(2, result.requests());
+                })
+                .verifyComplete();
+        assertTrue(handled.get());
+        assertEquals(2.0, meterRegistry.get("visa.warmup.requests").gauge().value());
+        verify(visaHttpClient, times(2)).exchange(argThat((HttpRequest<?> request) ->
+                request.getAttribute(StartupWarmup.WARMUP_ATTRIBUTE).isPresent()));
+    }
+
+    @Test
+    void testNoRequestIsSentWithoutWarmupPath() {
+        when(certificateManager.ready()).thenReturn(Mono.just(true));
+        StartupWarmup warmup = warmup(2, "", Duration.ofSeconds(10));
+
+        StepVerifier.create(warmup.ready())
+                .assertNext(result -> {
+                    assertTrue(result.completed());
+                    assertEquals(0, result.requests());
+                })
+                .verifyComplete();
+        verify(visaHttpClient, never()).exchange(any(HttpRequest.class));
+    }
+
+    @Test
+    void testReadinessTurnsUpWhenWarmupTimesOut() {
+        when(certificateManager.ready()).thenReturn(Mono.never());
+        StartupWarmup warmup = warmup(2, "/", Duration.ofMillis(100));
+        ReadinessProbe readiness = new ReadinessProbe(warmup);
+
+        assertEquals(HealthStatus.DOWN, readiness.status());
+
+        StepVerifier.create(warmup.ready())
+                .assertNext(result -> assertFalse(result.completed()))
+                .verifyComplete();
+        assertEquals(HealthStatus.UP, readiness.status());
+    }
+
+    @SuppressWarnings("unchecked")
+    private StartupWarmup warmup(int requests, String path, Duration timeout) {
+        BeanProvider<CertificateManager> provider = mock(BeanProvider.class);
+        when(provider.isPresent()).thenReturn(true);
+        when(provider.get()).thenReturn(certificateManager);
+        return new StartupWarmup(visaHttpClient, mock(VisaMapper.class), mock(JsonMapper.class), provider,
+                new StartupTimingRecorder(meterRegistry), meterRegistry, true, requests, 0, path, timeout);
+    }
+
+    private static final class ReadinessProbe extends WarmupHealthIndicator {
+
+        private ReadinessProbe(StartupWarmup startupWarmup) {
+            super(startupWarmup);
+        }
+
+        private HealthStatus status() {
+            getHealthInformation();
+            return healthStatus;
+        }
+    }
+}
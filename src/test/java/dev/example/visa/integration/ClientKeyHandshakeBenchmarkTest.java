@@ -0,0 +1,169 @@
+package dev.example.visa.integration;
+
+import dev.example.visa.security.PemPrivateKeyReader;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+
+/**
+ * Measures the CPU cost of a full mutual TLS handshake for RSA and EC P-256 client keys.
+ * Client and server engines handshake in memory on the calling thread, so the thread CPU time
+ * spent in each engine is exactly the handshake work without any network or scheduling noise.
+ * The server always presents the RSA certificate; only the client key type varies.
+ * <p>
+ * Only runs when requested: {@code mvn test -Dbenchmark=true -Dtest=ClientKeyHandshakeBenchmarkTest}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ClientKeyHandshakeBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ClientKeyHandshakeBenchmarkTest.class);
+
+    private static final int WARMUP_HANDSHAKES = 300;
+    private static final int MEASURED_HANDSHAKES = 1000;
+    private static final char[] PASSWORD = "benchmark".toCharArray();
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private long clientCpuNanos;
+    private long serverCpuNanos;
+
+    @ParameterizedTest
+    @ValueSource(strings = {"rsa", "ec"})
+    void benchmarkHandshakeCpu(String keyType) throws Exception {
+        SSLContext client = sslContext(keyType + "-cert.pem", keyType + "-key.pem", "rsa-cert.pem");
+        SSLContext server = sslContext("rsa-cert.pem", "rsa-key.pem", keyType + "-cert.pem");
+
+        for (int i = 0; i < WARMUP_HANDSHAKES; i++) {
+            handshake(client, server);
+        }
+        clientCpuNanos = 0;
+        serverCpuNanos = 0;
+        for (int i = 0; i < MEASURED_HANDSHAKES; i++) {
+            handshake(client, server);
+        }
+
+        LOG.info("Client key {}: {} us client CPU, {} us server CPU per handshake",
+                keyType.toUpperCase(),
+                clientCpuNanos / MEASURED_HANDSHAKES / 1000,
+                serverCpuNanos / MEASURED_HANDSHAKES / 1000);
+    }
+
+    /**
+     * Runs one full handshake. The engines are created without a peer address, so no session is resumed.
+     */
+    private void handshake(SSLContext clientContext, SSLContext serverContext) throws SSLException {
+        SSLEngine client = clientContext.createSSLEngine();
+        client.setUseClientMode(true);
+        SSLEngine server = serverContext.createSSLEngine();
+        server.setUseClientMode(false);
+        server.setNeedClientAuth(true);
+
+        int packetSize = Math.max(client.getSession().getPacketBufferSize(), server.getSession().getPacketBufferSize());
+        ByteBuffer clientToServer = ByteBuffer.allocate(packetSize);
+        ByteBuffer serverToClient = ByteBuffer.allocate(packetSize);
+        ByteBuffer application = ByteBuffer.allocate(packetSize);
+        ByteBuffer empty = ByteBuffer.allocate(0);
+
+        client.beginHandshake();
+        server.beginHandshake();
+        while (isHandshaking(client) || isHandshaking(server)) {
+            long start = threads.getCurrentThreadCpuTime();
+            step(client, empty, serverToClient, clientToServer, application);
+            long middle = threads.getCurrentThreadCpuTime();
+            step(server, empty, clientToServer, serverToClient, application);
+            clientCpuNanos += middle - start;
+            serverCpuNanos += threads.getCurrentThreadCpuTime() - middle;
+        }
+    }
+
+    /**
+     * Lets the engine consume what its peer sent and produce what it wants to send.
+     */
+    private void step(SSLEngine engine, ByteBuffer empty, ByteBuffer inbound, ByteBuffer outbound, ByteBuffer application)
+            throws SSLException {
+        inbound.flip();
+        while (engine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_UNWRAP && inbound.hasRemaining()) {
+            application.clear();
+            SSLEngineResult result = engine.unwrap(inbound, application);
+            runTasks(engine);
+            if (result.getStatus() != SSLEngineResult.Status.OK) {
+                break;
+            }
+        }
+        inbound.compact();
+
+        while (engine.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+            SSLEngineResult result = engine.wrap(empty, outbound);
+            runTasks(engine);
+            if (result.getStatus() != SSLEngineResult.Status.OK) {
+                break;
+            }
+        }
+        runTasks(engine);
+    }
+
+    private static void runTasks(SSLEngine engine) {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+            task.run();
+        }
+    }
+
+    private static boolean isHandshaking(SSLEngine engine) {
+        SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+        return status != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+                && status != SSLEngineResult.HandshakeStatus.FINISHED;
+    }
+
+    private static SSLContext sslContext(String certificate, String key, String trusted) throws Exception {
+        CertificateFactory certificates = CertificateFactory.getInstance("X.509");
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, null);
+        try (InputStream in = resource(certificate)) {
+            keyStore.setKeyEntry("client", PemPrivateKeyReader.read(text(resource(key))), PASSWORD,
+                    new Certificate[]{certificates.generateCertificate(in)});
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD);
+
+        KeyStore trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        try (InputStream in = resource(trusted)) {
+            trustStore.setCertificateEntry("peer", certificates.generateCertificate(in));
+        }
+        TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagers.init(trustStore);
+
+        SSLContext context = SSLContext.getInstance("TLS");
+        context.init(keyManagers.getKeyManagers(), trustManagers.getTrustManagers(), null);
+        return context;
+    }
+
+    private static InputStream resource(String name) {
+        return ClientKeyHandshakeBenchmarkTest.class.getResourceAsStream("/tls/" + name);
+    }
+
+    private static String text(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package dev.example.visa.integration;
+
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.client.DefaultHttpClientConfiguration;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.HttpClientConfiguration;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
+import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
+import io.netty.handler.ssl.ApplicationProtocolConfig;
+import io.netty.handler.ssl.ApplicationProtocolNames;
+import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares HTTP/1.1 and HTTP/2 for the Visa client against a local TLS mock server that negotiates the
+ * protocol over ALPN and answers every request after a fixed latency, like a remote API would.
+ * Both transports get the same connection limit; HTTP/2 multiplexes up to {@link #STREAMS_PER_CONNECTION}
+ * requests on each connection, so the interesting number is the throughput per connection.
+ * <p>
+ * Only runs when requested: {@code mvn test -Dbenchmark=true -Dtest=Http2TransportBenchmarkTest}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class Http2TransportBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(Http2TransportBenchmarkTest.class);
+
+    private static final int CONNECTIONS = 2;
+    private static final int STREAMS_PER_CONNECTION = 100;
+    private static final int CONCURRENCY = 200;
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int MEASURED_REQUESTS = 4000;
+    private static final long SERVER_LATENCY_MILLIS = 10;
+    private static final byte[] RESPONSE = """
+            {"requestTraceId":"benchmark"}""".getBytes(StandardCharsets.UTF_8);
+
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final Map<String, AtomicInteger> negotiated = new ConcurrentHashMap<>();
+
+    private EventLoopGroup serverGroup;
+    private URL serverUrl;
+
+    @BeforeAll
+    void startServer() throws Exception {
+        SslContext serverContext = SslContextBuilder.forServer(resource("rsa-cert.pem"), resource("rsa-key.pem"))
+                .sslProvider(SslProvider.JDK)
+                .applicationProtocolConfig(new ApplicationProtocolConfig(
+                        ApplicationProtocolConfig.Protocol.ALPN,
+                        ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
+                        ApplicationProtocolConfig.SelectedListenerFailureBehavior.ACCEPT,
+                        ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1))
+                .build();
+
+        serverGroup = new NioEventLoopGroup(2);
+        Channel server = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(serverContext.newHandler(ch.alloc()), new ProtocolHandler());
+                    }
+                })
+                .bind("127.0.0.1", 0)
+                .sync()
+                .channel();
+        serverUrl = new URL("https://localhost:" + ((InetSocketAddress) server.localAddress()).getPort());
+    }
+
+    @AfterAll
+    void stopServer() {
+        serverGroup.shutdownGracefully();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {ApplicationProtocolNames.HTTP_1_1, ApplicationProtocolNames.HTTP_2})
+    void benchmarkThroughputPerConnection(String protocol) throws Exception {
+        DefaultHttpClientConfiguration configuration = new DefaultHttpClientConfiguration();
+        // Same ALPN offer as the Visa client: h2 with HTTP/1.1 fallback, or HTTP/1.1 only
+        configuration.setAlpnModes(protocol.equals(ApplicationProtocolNames.HTTP_2)
+                ? List.of(ApplicationProtocolNames.HTTP_2, ApplicationProtocolNames.HTTP_1_1)
+                : List.of(ApplicationProtocolNames.HTTP_1_1));
+        configuration.setReadTimeout(Duration.ofSeconds(30));
+        configuration.getSslConfiguration().setInsecureTrustAllCertificates(true);
+        HttpClientConfiguration.ConnectionPoolConfiguration pool = configuration.getConnectionPoolConfiguration();
+        pool.setMaxConcurrentHttp1Connections(CONNECTIONS);
+        pool.setMaxConcurrentHttp2Connections(CONNECTIONS);
+        pool.setMaxConcurrentRequestsPerHttp2Connection(STREAMS_PER_CONNECTION);
+
+        int acceptedBefore = accepted.get();
+        try (HttpClient client = HttpClient.create(serverUrl, configuration)) {
+            run(client, WARMUP_REQUESTS);
+            long start = System.nanoTime();
+            run(client, MEASURED_REQUESTS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int connections = Math.max(1, accepted.get() - acceptedBefore);
+            double requestsPerSecond = MEASURED_REQUESTS / seconds;
+            LOG.info("Transport {}: {} req/s over {} connection(s), {} req/s per connection, negotiated {}",
+                    protocol,
+                    String.format("%.1f", requestsPerSecond),
+                    connections,
+                    String.format("%.1f", requestsPerSecond / connections),
+                    negotiated);
+        }
+    }
+
+    private void run(HttpClient client, int count) {
+        Long completed = Flux.range(0, count)
+                .flatMap(i -> Mono.from(client.retrieve(HttpRequest.GET("/vctp/requestStatus/" + i), String.class)),
+                        CONCURRENCY)
+                .count()
+                .block(Duration.ofMinutes(5));
+        assertEquals(count, completed);
+    }
+
+    private static InputStream resource(String name) {
+        return Http2TransportBenchmarkTest.class.getResourceAsStream("/tls/" + name);
+    }
+
+    /**
+     * Sets up HTTP/2 or HTTP/1.1 depending on what the client selected over ALPN.
+     */
+    private final class ProtocolHandler extends ApplicationProtocolNegotiationHandler {
+
+        private ProtocolHandler() {
+            super(ApplicationProtocolNames.HTTP_1_1);
+        }
+
+        @Override
+        protected void configurePipeline(ChannelHandlerContext ctx, String protocol) {
+            accepted.incrementAndGet();
+            negotiated.computeIfAbsent(protocol, p -> new AtomicInteger()).incrementAndGet();
+            if (ApplicationProtocolNames.HTTP_2.equals(protocol)) {
+                ctx.pipeline().addLast(
+                        Http2FrameCodecBuilder.forServer()
+                                .initialSettings(Http2Settings.defaultSettings().maxConcurrentStreams(1000))
+                                .build(),
+                        new Http2MultiplexHandler(new ChannelInitializer<Channel>() {
+                            @Override
+                            protected void initChannel(Channel stream) {
+                                stream.pipeline().addLast(new Http2StreamFrameToHttpObjectCodec(true),
+                                        new HttpObjectAggregator(64 * 1024), new DelayedResponder());
+                            }
+                        }));
+            } else {
+                ctx.pipeline().addLast(new HttpServerCodec(), new HttpObjectAggregator(64 * 1024),
+                        new DelayedResponder());
+            }
+        }
+    }
+
+    private static final class DelayedResponder extends SimpleChannelInboundHandler<FullHttpRequest> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) {
+            ctx.executor().schedule(() -> {
+                FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                        Unpooled.wrappedBuffer(RESPONSE));
+                response.headers()
+                        .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                        .setInt(HttpHeaderNames.CONTENT_LENGTH, RESPONSE.length);
+                ctx.writeAndFlush(response);
+            }, SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+}
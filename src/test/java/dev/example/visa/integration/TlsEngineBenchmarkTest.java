@@ -0,0 +1,193 @@
+package dev.example.visa.integration;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.ssl.ClientAuth;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the JDK and OpenSSL (netty-tcnative BoringSSL) engines for the Visa mutual TLS client
+ * against a local TLS echo server that requires client authentication.
+ * Measures the full handshake rate and the bulk throughput over a single connection.
+ * <p>
+ * Only runs when requested: {@code mvn test -Dbenchmark=true -Dtest=TlsEngineBenchmarkTest}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class TlsEngineBenchmarkTest {
+    private static final Logger LOG = LoggerFactory.getLogger(TlsEngineBenchmarkTest.class);
+
+    private static final int WARMUP_HANDSHAKES = 200;
+    private static final int MEASURED_HANDSHAKES = 1000;
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final long THROUGHPUT_BYTES = 256L * 1024 * 1024;
+
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup clientGroup;
+    private InetSocketAddress serverAddress;
+
+    @BeforeAll
+    void startServer() throws Exception {
+        SslContext serverContext = SslContextBuilder.forServer(resource("rsa-cert.pem"), resource("rsa-key.pem"))
+                .sslProvider(SslProvider.JDK)
+                .trustManager(resource("rsa-cert.pem"))
+                .clientAuth(ClientAuth.REQUIRE)
+                .build();
+
+        serverGroup = new NioEventLoopGroup(2);
+        clientGroup = new NioEventLoopGroup(2);
+        Channel server = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(serverContext.newHandler(ch.alloc()), new EchoHandler());
+                    }
+                })
+                .bind("127.0.0.1", 0)
+                .sync()
+                .channel();
+        serverAddress = (InetSocketAddress) server.localAddress();
+    }
+
+    @AfterAll
+    void stopServer() {
+        clientGroup.shutdownGracefully();
+        serverGroup.shutdownGracefully();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SslProvider.class, names = {"JDK", "OPENSSL"})
+    void benchmarkHandshakeRateAndThroughput(SslProvider provider) throws Exception {
+        assumeTrue(provider == SslProvider.JDK || OpenSsl.isAvailable(), "OpenSSL is not available");
+
+        SslContext clientContext = SslContextBuilder.forClient()
+                .sslProvider(provider)
+                .keyManager(resource("rsa-cert.pem"), resource("rsa-key.pem"))
+                .trustManager(resource("rsa-cert.pem"))
+                .build();
+
+        runHandshakes(clientContext, WARMUP_HANDSHAKES);
+        long start = System.nanoTime();
+        runHandshakes(clientContext, MEASURED_HANDSHAKES);
+        double handshakeSeconds = (System.nanoTime() - start) / 1e9;
+
+        double throughputSeconds = runThroughput(clientContext);
+
+        LOG.info("TLS engine {}: {} handshakes/s, {} MB/s",
+                provider,
+                String.format("%.1f", MEASURED_HANDSHAKES / handshakeSeconds),
+                String.format("%.1f", THROUGHPUT_BYTES / (1024.0 * 1024.0) / throughputSeconds));
+    }
+
+    /**
+     * Opens and closes connections one after another. The handlers are created without a peer host,
+     * so every connection performs a full handshake instead of resuming a session.
+     */
+    private void runHandshakes(SslContext clientContext, int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            Channel channel = connect(clientContext, new ChannelInboundHandlerAdapter());
+            assertTrue(channel.pipeline().get(SslHandler.class).handshakeFuture().await(5, TimeUnit.SECONDS));
+            channel.close().sync();
+        }
+    }
+
+    /**
+     * Streams {@link #THROUGHPUT_BYTES} through the echo server and returns the seconds until all bytes came back.
+     */
+    private double runThroughput(SslContext clientContext) throws Exception {
+        CountDownLatch echoed = new CountDownLatch(1);
+        AtomicLong received = new AtomicLong();
+        Channel channel = connect(clientContext, new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                if (received.addAndGet(((ByteBuf) msg).readableBytes()) >= THROUGHPUT_BYTES) {
+                    echoed.countDown();
+                }
+                ReferenceCountUtil.release(msg);
+            }
+        });
+        channel.pipeline().get(SslHandler.class).handshakeFuture().sync();
+
+        byte[] chunk = new byte[CHUNK_SIZE];
+        long start = System.nanoTime();
+        for (long sent = 0; sent < THROUGHPUT_BYTES; sent += CHUNK_SIZE) {
+            channel.write(channel.alloc().buffer(CHUNK_SIZE).writeBytes(chunk));
+            if (!channel.isWritable()) {
+                channel.flush();
+                while (!channel.isWritable()) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+        channel.flush();
+        assertTrue(echoed.await(2, TimeUnit.MINUTES));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        channel.close().sync();
+        return seconds;
+    }
+
+    private Channel connect(SslContext clientContext, ChannelInboundHandlerAdapter handler) throws InterruptedException {
+        return new Bootstrap()
+                .group(clientGroup)
+                .channel(NioSocketChannel.class)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(clientContext.newHandler(ch.alloc()), handler);
+                    }
+                })
+                .connect(serverAddress)
+                .sync()
+                .channel();
+    }
+
+    private static InputStream resource(String name) {
+        return TlsEngineBenchmarkTest.class.getResourceAsStream("/tls/" + name);
+    }
+
+    private static final class EchoHandler extends ChannelInboundHandlerAdapter {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ctx.write(msg);
+        }
+
+        @Override
+        public void channelReadComplete(ChannelHandlerContext ctx) {
+            ctx.flush();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package dev.example.visa.integration;
+
+import dev.example.visa.client.VisaCallRejectedException;
+import dev.example.visa.client.VisaCircuitBreakers;
+import dev.example.visa.client.VisaClickToPayClient;
+import dev.example.visa.client.VisaOperation;
+import dev.example.visa.model.CardPaymentInstrument;
+import dev.example.visa.model.ConsumerInformation;
+import dev.example.visa.model.EnrollDataRequest;
+import dev.example.visa.model.Intent;
+import dev.example.visa.model.RequestIdResponse;
+import dev.example.visa.service.VisaClickToPayService;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.annotation.MockBean;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.Mockito;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that the circuit breaker in front of the Visa client opens on consecutive failures and recovers.
+ */
+@MicronautTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Property(name = "visa.api.circuit-breaker.enabled", value = "true")
+@Property(name = "visa.api.circuit-breaker.window-size", value = "4")
+@Property(name = "visa.api.circuit-breaker.minimum-calls", value = "4")
+@Property(name = "visa.api.circuit-breaker.failure-rate-threshold", value = "50")
+@Property(name = "visa.api.circuit-breaker.open-duration", value = "500ms")
+@Property(name = "visa.api.circuit-breaker.half-open-calls", value = "1")
+public class VisaCircuitBreakerIntegrationTest {
+
+    @Container
+    static RabbitMQContainer rabbitMQContainer = new RabbitMQContainer("rabbitmq:3.11-management")
+            .withExposedPorts(5672, 15672);
+
+    @Inject
+    VisaClickToPayClient mockVisaClient;
+
+    @Inject
+    VisaClickToPayService visaService;
+
+    @Inject
+    VisaCircuitBreakers circuitBreakers;
+
+    @MockBean(VisaClickToPayClient.class)
+    VisaClickToPayClient visaClickToPayClient() {
+        return Mockito.mock(VisaClickToPayClient.class);
+    }
+
+    @Test
+    void testCircuitBreakerOpensOnConsecutiveFailuresAndRecovers() throws Exception {
+        EnrollDataRequest request = createTestEnrollDataRequest("test-consumer-" + UUID.randomUUID());
+        HttpClientResponseException serverError = createMockHttpException(500);
+        when(mockVisaClient.enrollData(any(), anyString()))
+                .thenReturn(Mono.error(serverError));
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(visaService.enrollData(request, "test-correlation-id-" + i))
+                    .expectError(HttpClientResponseException.class)
+                    .verify(Duration.ofSeconds(5));
+        }
+        assertEquals(VisaCircuitBreakers.State.OPEN, circuitBreakers.state(VisaOperation.ENROLL_DATA));
+
+        // An open breaker rejects without calling Visa
+        StepVerifier.create(visaService.enrollData(request, "test-correlation-id-rejected"))
+                .expectErrorSatisfies(e -> assertEquals("circuit-open", ((VisaCallRejectedException) e).getReason()))
+                .verify(Duration.ofSeconds(5));
+        verify(mockVisaClient, times(4)).enrollData(any(), anyString());
+
+        reset(mockVisaClient);
+        when(mockVisaClient.enrollData(any(), anyString()))
+                .thenReturn(Mono.just(RequestIdResponse.builder()
+                        .requestTraceId("success-after-failures")
+                        .build()));
+
+        // After the open duration a half-open probe is let through and closes the breaker
+        Thread.sleep(700);
+        StepVerifier.create(visaService.enrollData(request, "test-correlation-id-probe"))
+                .expectNextMatches(response -> response.requestTraceId().equals("success-after-failures"))
+                .verifyComplete();
+        assertEquals(VisaCircuitBreakers.State.CLOSED, circuitBreakers.state(VisaOperation.ENROLL_DATA));
+
+        StepVerifier.create(visaService.enrollData(request, "test-correlation-id-recovered"))
+                .expectNextMatches(response -> response.requestTraceId().equals("success-after-failures"))
+                .verifyComplete();
+        verify(mockVisaClient, times(2)).enrollData(any(), anyString());
+    }
+
+    private EnrollDataRequest createTestEnrollDataRequest(String consumerId) {
+        return EnrollDataRequest.builder()
+                .intent(Intent.builder()
+                        .type("PRODUCT_CODE")
+                        .value("CLICK_TO_PAY")
+                        .build())
+                .consumerInformation(ConsumerInformation.builder()
+                        .externalConsumerID(consumerId)
+                        .firstName("John")
+                        .lastName("Doe")
+                        .countryCode("USA")
+                        .build())
+                .paymentInstruments(Collections.singletonList(
+                        CardPaymentInstrument.builder()
+                                .type("CARD")
+                                .accountNumber("4111111111111111")
+                                .nameOnCard("John Doe")
+                                .expirationDate("2025-12")
+                                .build()))
+                .build();
+    }
+
+    private HttpClientResponseException createMockHttpException(int status) {
+        HttpClientResponseException mockException = Mockito.mock(HttpClientResponseException.class);
+        HttpResponse<?> mockResponse = Mockito.mock(HttpResponse.class);
+        Mockito.doReturn(mockResponse).when(mockException).getResponse();
+        when(mockException.getMessage()).thenReturn("Internal server error");
+        when(mockException.getStatus()).thenReturn(HttpStatus.valueOf(status));
+        return mockException;
+    }
+}
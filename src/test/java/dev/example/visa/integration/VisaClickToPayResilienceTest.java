@@ -6,6 +6,8 @@ import dev.example.visa.dto.EnrollmentResponseDto;
 import dev.example.visa.model.EnrollDataRequest;
 import dev.example.visa.model.ErrorResponse;
 import dev.example.visa.model.RequestIdResponse;
+import dev.example.visa.model.RequestStatusResponse;
+import dev.example.visa.service.VisaClickToPayService;
 import io.micronaut.context.ApplicationContext;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.HttpStatus;
@@ -33,7 +35,6 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -57,102 +58,69 @@ public class VisaClickToPayResilienceTest {
     @Inject
     VisaClickToPayClient mockVisaClient;
 
+    @Inject
+    VisaClickToPayService visaService;
+
     @Test
     void testRetryMechanism() {
-        String testConsumerId = "test-consumer-" + UUID.randomUUID();
         String requestTraceId = UUID.randomUUID().toString();
 
         // First call fails with a 500 error
         HttpClientResponseException mockException = createMockHttpException(500, "ServerError", "Internal server error");
 
         // Set up the client to fail on first call, then succeed
-        when(mockVisaClient.enrollData(any(), anyString()))
+        when(mockVisaClient.getRequestStatus(anyString(), anyString()))
                 .thenReturn(Mono.error(mockException))
-                .thenReturn(Mono.just(RequestIdResponse.builder()
-                        .requestTraceId(requestTraceId)
+                .thenReturn(Mono.just(RequestStatusResponse.builder()
+                        .status("COMPLETED")
                         .build()));
 
-        // Create a test request
-        EnrollDataRequest request = createTestEnrollDataRequest(testConsumerId);
-
-        // Execute the request and verify retry behavior
-        StepVerifier.create(mockVisaClient.enrollData(request, "test-correlation-id"))
-                .expectNextMatches(response -> response.requestTraceId().equals(requestTraceId))
+        // Read-only operations are retried by the service
+        StepVerifier.create(visaService.getRequestStatus(requestTraceId, "test-correlation-id"))
+                .expectNextMatches(response -> response.status().equals("COMPLETED"))
                 .verifyComplete();
 
         // Verify the client was called twice (initial + retry)
-        verify(mockVisaClient, times(2)).enrollData(any(), anyString());
+        verify(mockVisaClient, times(2)).getRequestStatus(anyString(), anyString());
     }
 
     @Test
-    void testCircuitBreakerOnConsecutiveFailures() throws Exception {
+    void testNonIdempotentOperationIsNotRetriedOnServerError() {
         String testConsumerId = "test-consumer-" + UUID.randomUUID();
-
-        // Create a sequence of exceptions
         HttpClientResponseException mockException = createMockHttpException(500, "ServerError", "Internal server error");
 
-        // Configure the client to always fail
         when(mockVisaClient.enrollData(any(), anyString()))
                 .thenReturn(Mono.error(mockException));
 
-        // Create a test request
-        EnrollDataRequest request = createTestEnrollDataRequest(testConsumerId);
-
-        // Test consecutive failures
-        for (int i = 0; i < 5; i++) {
-            StepVerifier.create(mockVisaClient.enrollData(request, "test-correlation-id-" + i))
-                    .expectError(HttpClientResponseException.class)
-                    .verify(Duration.ofSeconds(5));
-        }
+        // Visa may have processed the enrollment, so it must not be sent twice
+        StepVerifier.create(visaService.enrollData(createTestEnrollDataRequest(testConsumerId), "test-correlation-id"))
+                .expectError(HttpClientResponseException.class)
+                .verify(Duration.ofSeconds(5));
 
-        // Verify the client was called for each request
-        verify(mockVisaClient, times(5)).enrollData(any(), anyString());
-
-        // Reset the mock to simulate circuit half-open state
-        reset(mockVisaClient);
-        when(mockVisaClient.enrollData(any(), anyString()))
-                .thenReturn(Mono.just(RequestIdResponse.builder()
-                        .requestTraceId("success-after-failures")
-                        .build()));
-
-        // Allow circuit breaker reset time
-        Thread.sleep(1000);
-
-        // Should work after circuit resets
-        StepVerifier.create(mockVisaClient.enrollData(request, "test-correlation-id-recovery"))
-                .expectNextMatches(response -> response.requestTraceId().equals("success-after-failures"))
-                .verifyComplete();
+        verify(mockVisaClient, times(1)).enrollData(any(), anyString());
     }
 
     @Test
     void testTransientNetworkErrorHandling() {
-        String testConsumerId = "test-consumer-" + UUID.randomUUID();
-
         // Network error (IOException wrapped in HttpClientResponseException)
         IOException ioException = new IOException("Connection refused");
         HttpClientResponseException networkException = new HttpClientResponseException(
                 "Connection error", ioException, HttpResponse.serverError());
 
-        // Success response after error
-        String requestTraceId = UUID.randomUUID().toString();
-
         // Set up the client to fail on first call with network error, then succeed
-        when(mockVisaClient.enrollData(any(), anyString()))
+        when(mockVisaClient.getRequestStatus(anyString(), anyString()))
                 .thenReturn(Mono.error(networkException))
-                .thenReturn(Mono.just(RequestIdResponse.builder()
-                        .requestTraceId(requestTraceId)
+                .thenReturn(Mono.just(RequestStatusResponse.builder()
+                        .status("COMPLETED")
                         .build()));
 
-        // Create a test request
-        EnrollDataRequest request = createTestEnrollDataRequest(testConsumerId);
-
         // Execute the request and verify retry behavior
-        StepVerifier.create(mockVisaClient.enrollData(request, "test-correlation-id"))
-                .expectNextMatches(response -> response.requestTraceId().equals(requestTraceId))
+        StepVerifier.create(visaService.getRequestStatus(UUID.randomUUID().toString(), "test-correlation-id"))
+                .expectNextMatches(response -> response.status().equals("COMPLETED"))
                 .verifyComplete();
 
         // Verify the client was called twice (initial + retry)
-        verify(mockVisaClient, times(2)).enrollData(any(), anyString());
+        verify(mockVisaClient, times(2)).getRequestStatus(anyString(), anyString());
     }
 
     @Test
@@ -0,0 +1,167 @@
+package dev.example.visa.integration;
+
+import dev.example.visa.client.VisaClickToPayClient;
+import dev.example.visa.model.CardPaymentInstrument;
+import dev.example.visa.model.ConsumerInformation;
+import dev.example.visa.model.ConsumerInformationIdRef;
+import dev.example.visa.model.EnrollDataRequest;
+import dev.example.visa.model.GetDataRequest;
+import dev.example.visa.model.GetDataResponse;
+import dev.example.visa.model.Intent;
+import dev.example.visa.model.RequestIdResponse;
+import dev.example.visa.model.RequestStatusResponse;
+import dev.example.visa.service.VisaClickToPayService;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.annotation.MockBean;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.mockito.Mockito;
+import org.testcontainers.containers.RabbitMQContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the service with the call protection stack as it is configured in production: concurrency limit,
+ * bulkheads, rate limit, circuit breaker, retries, coalescing and the status cache. The test profile turns
+ * these layers off for the other suites because they keep state across tests.
+ */
+@MicronautTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Property(name = "visa.api.concurrency.enabled", value = "true")
+@Property(name = "visa.api.bulkhead.enabled", value = "true")
+@Property(name = "visa.api.rate-limit.enabled", value = "true")
+@Property(name = "visa.api.circuit-breaker.enabled", value = "true")
+@Property(name = "visa.api.coalescing.enabled", value = "true")
+@Property(name = "visa.api.status-cache.enabled", value = "true")
+public class VisaProtectionStackIntegrationTest {
+
+    @Container
+    static RabbitMQContainer rabbitMQContainer = new RabbitMQContainer("rabbitmq:3.11-management")
+            .withExposedPorts(5672, 15672);
+
+    @Inject
+    VisaClickToPayClient mockVisaClient;
+
+    @Inject
+    VisaClickToPayService visaService;
+
+    @MockBean(VisaClickToPayClient.class)
+    VisaClickToPayClient visaClickToPayClient() {
+        return Mockito.mock(VisaClickToPayClient.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        reset(mockVisaClient);
+    }
+
+    @Test
+    void testEnrollDataPassesThroughEveryLayerOnce() {
+        when(mockVisaClient.enrollData(any(), anyString()))
+                .thenReturn(Mono.just(RequestIdResponse.builder().requestTraceId("enrolled").build()));
+
+        StepVerifier.create(visaService.enrollData(createEnrollDataRequest(), "stack-enroll"))
+                .expectNextMatches(response -> response.requestTraceId().equals("enrolled"))
+                .verifyComplete();
+        verify(mockVisaClient, times(1)).enrollData(any(), anyString());
+    }
+
+    @Test
+    void testReadOnlyCallIsRetriedAfterServerError() {
+        String requestTraceId = "retry-" + UUID.randomUUID();
+        when(mockVisaClient.getRequestStatus(eq(requestTraceId), anyString()))
+                .thenReturn(Mono.error(createMockHttpException(503)))
+                .thenReturn(Mono.just(RequestStatusResponse.builder().status("COMPLETED").build()));
+
+        StepVerifier.create(visaService.getRequestStatus(requestTraceId, "stack-retry"))
+                .expectNextMatches(response -> response.status().equals("COMPLETED"))
+                .verifyComplete();
+        verify(mockVisaClient, times(2)).getRequestStatus(eq(requestTraceId), anyString());
+    }
+
+    @Test
+    void testTerminalStatusIsServedFromTheCache() {
+        String requestTraceId = "cached-" + UUID.randomUUID();
+        when(mockVisaClient.getRequestStatus(eq(requestTraceId), anyString()))
+                .thenReturn(Mono.just(RequestStatusResponse.builder().status("COMPLETED").build()));
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(visaService.getRequestStatus(requestTraceId, "stack-cache-" + i))
+                    .expectNextMatches(response -> response.status().equals("COMPLETED"))
+                    .verifyComplete();
+        }
+        verify(mockVisaClient, times(1)).getRequestStatus(eq(requestTraceId), anyString());
+    }
+
+    @Test
+    void testConcurrentIdenticalGetDataCallsShareOneVisaCall() {
+        GetDataResponse data = GetDataResponse.builder().data(List.of()).build();
+        when(mockVisaClient.getData(any(), anyString()))
+                .thenReturn(Mono.delay(Duration.ofMillis(200)).thenReturn(data));
+        GetDataRequest request = new GetDataRequest(new Intent("PRODUCT_CODE", "CLICK_TO_PAY"),
+                new ConsumerInformationIdRef("stack-consumer-" + UUID.randomUUID()));
+
+        StepVerifier.create(Mono.zip(visaService.getData(request, "stack-data-1"),
+                        visaService.getData(request, "stack-data-2")))
+                .assertNext(responses -> {
+                    assertSame(data, responses.getT1());
+                    assertSame(data, responses.getT2());
+                })
+                .verifyComplete();
+        verify(mockVisaClient, times(1)).getData(any(), anyString());
+    }
+
+    private EnrollDataRequest createEnrollDataRequest() {
+        return EnrollDataRequest.builder()
+                .intent(Intent.builder()
+                        .type("PRODUCT_CODE")
+                        .value("CLICK_TO_PAY")
+                        .build())
+                .consumerInformation(ConsumerInformation.builder()
+                        .externalConsumerID("stack-consumer-" + UUID.randomUUID())
+                        .firstName("John")
+                        .lastName("Doe")
+                        .countryCode("USA")
+                        .build())
+                .paymentInstruments(Collections.singletonList(
+                        CardPaymentInstrument.builder()
+                                .type("CARD")
+                                .accountNumber("4111111111111111")
+                                .nameOnCard("John Doe")
+                                .expirationDate("2025-12")
+                                .build()))
+                .build();
+    }
+
+    private HttpClientResponseException createMockHttpException(int status) {
+        HttpClientResponseException mockException = Mockito.mock(HttpClientResponseException.class);
+        HttpResponse<?> mockResponse = Mockito.mock(HttpResponse.class);
+        Mockito.doReturn(mockResponse).when(mockException).getResponse();
+        when(mockException.getMessage()).thenReturn("Service unavailable");
+        when(mockException.getStatus()).thenReturn(HttpStatus.valueOf(status));
+        return mockException;
+    }
+}
@@ -0,0 +1,58 @@
+package dev.example.visa.messaging;
+
+import com.rabbitmq.client.AMQP;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RabbitDeadlineBinderTest {
+
+    private static final Instant RECEIVED_AT = Instant.parse("2026-01-01T12:00:10Z");
+
+    private final RabbitDeadlineBinder binder = new RabbitDeadlineBinder(Duration.ofSeconds(30));
+
+    @Test
+    void defaultsToTheRpcTimeoutFromTheMessageTimestamp() {
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .timestamp(Date.from(RECEIVED_AT.minusSeconds(10)))
+                .build();
+
+        assertEquals(RECEIVED_AT.plusSeconds(20), binder.resolve(properties, RECEIVED_AT).expiresAt());
+        assertEquals(RECEIVED_AT.plusSeconds(30),
+                binder.resolve(new AMQP.BasicProperties.Builder().build(), RECEIVED_AT).expiresAt());
+    }
+
+    @Test
+    void expirationCountsFromTheTimestampOrTheArrival() {
+        AMQP.BasicProperties stamped = new AMQP.BasicProperties.Builder()
+                .timestamp(Date.from(RECEIVED_AT.minusSeconds(2)))
+                .expiration("3000")
+                .build();
+        AMQP.BasicProperties unstamped = new AMQP.BasicProperties.Builder()
+                .expiration("3000")
+                .build();
+
+        assertEquals(RECEIVED_AT.plusSeconds(1), binder.resolve(stamped, RECEIVED_AT).expiresAt());
+        assertEquals(RECEIVED_AT.plusSeconds(3), binder.resolve(unstamped, RECEIVED_AT).expiresAt());
+    }
+
+    @Test
+    void earlierOfDeadlineHeaderAndExpirationWins() {
+        Instant header = RECEIVED_AT.plusSeconds(5);
+        AMQP.BasicProperties properties = new AMQP.BasicProperties.Builder()
+                .headers(Map.of(RabbitDeadlineBinder.DEADLINE_HEADER, header.toString()))
+                .expiration("60000")
+                .build();
+        AMQP.BasicProperties millis = new AMQP.BasicProperties.Builder()
+                .headers(Map.of(RabbitDeadlineBinder.DEADLINE_HEADER, header.toEpochMilli()))
+                .build();
+
+        assertEquals(header, binder.resolve(properties, RECEIVED_AT).expiresAt());
+        assertEquals(header, binder.resolve(millis, RECEIVED_AT).expiresAt());
+    }
+}
@@ -0,0 +1,87 @@
+package dev.example.visa.security;
+
+import dev.example.visa.config.StartupTimingRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for installing rotated TLS material into the rotating key and trust managers.
+ */
+class CertificateManagerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<TlsMaterialRotationEvent> events = new CopyOnWriteArrayList<>();
+    private final CertificateManager manager = new CertificateManager("changeit", mock(VaultService.class),
+            new StartupTimingRecorder(meterRegistry), events::add, meterRegistry);
+
+    @Test
+    void testInitialMaterialIsInstalledWithoutRotationEvent() throws IOException {
+        build(1);
+
+        assertEquals(1, manager.currentMaterial().orElseThrow().version());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void testOnlyTheBootstrapIsRecordedAsStartupPhase() throws IOException {
+        build(1);
+        build(2);
+        build(3);
+
+        assertEquals(1, meterRegistry.get("app.startup.phase").tag("phase", "certificates.keystore").timer().count());
+        assertEquals(1, meterRegistry.get("app.startup.phase").tag("phase", "certificates.truststore").timer().count());
+        assertEquals(2, meterRegistry.get("visa.tls.rotation").timer().count());
+    }
+
+    @Test
+    void testNewerMaterialPublishesRotationEventOnce() throws IOException {
+        build(1);
+        build(2);
+
+        assertEquals(2, manager.currentMaterial().orElseThrow().version());
+        assertEquals(1, events.size());
+        assertEquals(1, events.get(0).previous().version());
+        assertEquals(2, events.get(0).current().version());
+        assertEquals(1.0, meterRegistry.counter("visa.tls.rotations", "outcome", "success").count());
+    }
+
+    @Test
+    void testOlderMaterialIsIgnored() throws IOException {
+        build(1);
+        build(3);
+        build(2);
+        build(3);
+
+        assertEquals(3, manager.currentMaterial().orElseThrow().version());
+        assertEquals(1, events.size());
+        assertEquals(1.0, meterRegistry.counter("visa.tls.rotations", "outcome", "success").count());
+    }
+
+    private void build(long version) throws IOException {
+        SecretSnapshot snapshot = new SecretSnapshot(Map.of(
+                "client_certificate", pem("rsa-cert.pem"),
+                "client_key", pem("rsa-key.pem"),
+                "server_certificate", pem("rsa-cert.pem")), version, Instant.now(), null);
+        boolean bootstrapping = manager.currentMaterial().isEmpty();
+        assertEquals(Boolean.TRUE, manager.buildMaterial(snapshot, bootstrapping).block(Duration.ofSeconds(10)));
+    }
+
+    private static String pem(String name) throws IOException {
+        try (InputStream in = CertificateManagerTest.class.getResourceAsStream("/tls/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
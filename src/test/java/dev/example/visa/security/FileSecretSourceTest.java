@@ -0,0 +1,71 @@
+package dev.example.visa.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for loading secret files and reloading them when the directory changes.
+ */
+class FileSecretSourceTest {
+
+    private static final Duration DEBOUNCE = Duration.ofMillis(200);
+
+    @TempDir
+    Path directory;
+
+    private FileSecretSource source;
+
+    @AfterEach
+    void tearDown() {
+        if (source != null) {
+            source.shutdown();
+        }
+    }
+
+    @Test
+    void testInitialLoadStripsTrailingWhitespaceAndSkipsDotfiles() throws IOException {
+        Files.writeString(directory.resolve("api_key"), "key-1\n");
+        Files.writeString(directory.resolve(".hidden"), "ignored");
+
+        source = new FileSecretSource(directory, DEBOUNCE);
+        source.initialize();
+
+        assertEquals(Map.of("api_key", "key-1"), source.read(null).data());
+    }
+
+    @Test
+    void testBurstOfWritesIsReloadedOnce() throws IOException, InterruptedException {
+        Files.writeString(directory.resolve("api_key"), "key-1\n");
+        source = new FileSecretSource(directory, DEBOUNCE);
+        AtomicInteger notifications = new AtomicInteger();
+        CountDownLatch reloaded = new CountDownLatch(1);
+        source.onChange(() -> {
+            notifications.incrementAndGet();
+            reloaded.countDown();
+        });
+        source.initialize();
+
+        Files.writeString(directory.resolve("api_key"), "key-2  \n");
+        Files.writeString(directory.resolve("shared_secret"), "secret-2\r\n");
+        Files.writeString(directory.resolve("..data"), "ignored");
+
+        assertTrue(reloaded.await(10, TimeUnit.SECONDS));
+        Thread.sleep(DEBOUNCE.toMillis() * 3);
+
+        assertEquals(1, notifications.get());
+        assertEquals(Map.of("api_key", "key-2", "shared_secret", "secret-2"), source.read(null).data());
+    }
+}
@@ -0,0 +1,133 @@
+package dev.example.visa.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the bounded Vault I/O executor.
+ */
+class VaultIoExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VaultIoExecutor executor = new VaultIoExecutor(1, 1, false, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testRunsTasksOffTheCallingThread() {
+        Thread caller = Thread.currentThread();
+
+        StepVerifier.create(executor.execute(() -> Thread.currentThread() != caller))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void testRejectsCallsBeyondTheQueueLimit() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Disposable first = executor.execute(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }).subscribe();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        Disposable queued = executor.execute(() -> true).subscribe();
+        StepVerifier.create(executor.execute(() -> true))
+                .expectError(RejectedExecutionException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(1.0, meterRegistry.get("vault.io.pending").gauge().value());
+
+        release.countDown();
+        first.dispose();
+        queued.dispose();
+    }
+
+    @Test
+    void testNeverRunsMoreTasksThanPermits() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        VaultIoExecutor wide = new VaultIoExecutor(2, 16, false, meterRegistry);
+
+        try {
+            StepVerifier.create(Flux.range(0, 8).flatMap(i -> wide.execute(() -> {
+                        maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                        Thread.sleep(20);
+                        active.decrementAndGet();
+                        return i;
+                    })))
+                    .expectNextCount(8)
+                    .verifyComplete();
+        } finally {
+            wide.shutdown();
+        }
+
+        assertTrue(maxActive.get() <= 2, "ran " + maxActive.get() + " tasks at once");
+    }
+
+    @Test
+    void testCancelledQueuedCallReleasesItsQueueSlot() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Disposable first = executor.execute(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }).subscribe();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        executor.execute(() -> true).subscribe().dispose();
+        release.countDown();
+        first.dispose();
+
+        StepVerifier.create(executor.execute(() -> "next"))
+                .expectNext("next")
+                .verifyComplete();
+    }
+
+    @Test
+    void testCancelWhileWaitingForPermitReleasesTheQueueSlotOnce() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VaultIoExecutor virtual = new VaultIoExecutor(1, 4, true, registry);
+        try {
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Disposable first = virtual.execute(() -> {
+                running.countDown();
+                return release.await(5, TimeUnit.SECONDS);
+            }).subscribe();
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            // The second call gets its own virtual thread and parks on the permit
+            Disposable queued = virtual.execute(() -> true).subscribe();
+            assertEquals(1.0, registry.get("vault.io.pending").gauge().value());
+
+            queued.dispose();
+            assertEquals(0.0, registry.get("vault.io.pending").gauge().value());
+
+            release.countDown();
+            first.dispose();
+            StepVerifier.create(virtual.execute(() -> "next"))
+                    .expectNext("next")
+                    .verifyComplete();
+            assertEquals(0.0, registry.get("vault.io.pending").gauge().value());
+        } finally {
+            virtual.shutdown();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package dev.example.visa.security;
+
+import io.github.jopenlibs.vault.Vault;
+import io.github.jopenlibs.vault.VaultException;
+import io.github.jopenlibs.vault.api.Logical;
+import io.github.jopenlibs.vault.response.DataMetadata;
+import io.github.jopenlibs.vault.response.LogicalResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for skipping the full secret read when the KV v2 version did not change.
+ */
+class VaultSecretSourceTest {
+
+    private static final String SECRET_PATH = "secret/visa";
+    private static final String METADATA_PATH = "secret/metadata/visa";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VaultTokenManager tokenManager = mock(VaultTokenManager.class);
+    private final Logical logical = mock(Logical.class);
+    private final Logical rawLogical = mock(Logical.class);
+
+    private VaultSecretSource source;
+    private SecretSnapshot previous;
+
+    @BeforeEach
+    void setUp() throws VaultException {
+        Vault vault = mock(Vault.class);
+        Vault rawPathVault = mock(Vault.class);
+        when(tokenManager.vault()).thenReturn(vault);
+        when(tokenManager.rawPathVault()).thenReturn(rawPathVault);
+        when(vault.logical()).thenReturn(logical);
+        when(rawPathVault.logical()).thenReturn(rawLogical);
+
+        source = new VaultSecretSource(SECRET_PATH, 2, tokenManager, meterRegistry);
+
+        LogicalResponse secret = secret(Map.of("api_key", "key-3"), 3L);
+        when(logical.read(SECRET_PATH)).thenReturn(secret);
+        SecretSource.Payload initial = source.read(null);
+        previous = SecretSnapshot.initial(initial.data(), Instant.now(), initial.expiresAt());
+    }
+
+    @Test
+    void testUnchangedVersionSkipsPayloadFetch() throws VaultException {
+        LogicalResponse metadata = metadata("3");
+        when(rawLogical.read(METADATA_PATH)).thenReturn(metadata);
+
+        SecretSource.Payload payload = source.read(previous);
+
+        assertEquals(Map.of("api_key", "key-3"), payload.data());
+        verify(logical, times(1)).read(SECRET_PATH);
+        assertEquals(1, checks("unchanged"));
+        assertEquals(0, checks("changed"));
+    }
+
+    @Test
+    void testChangedVersionFetchesPayload() throws VaultException {
+        LogicalResponse metadata = metadata("4");
+        LogicalResponse secret = secret(Map.of("api_key", "key-4"), 4L);
+        when(rawLogical.read(METADATA_PATH)).thenReturn(metadata);
+        when(logical.read(SECRET_PATH)).thenReturn(secret);
+
+        SecretSource.Payload payload = source.read(previous);
+
+        assertEquals(Map.of("api_key", "key-4"), payload.data());
+        verify(logical, times(2)).read(SECRET_PATH);
+        assertEquals(1, checks("changed"));
+        assertEquals(0, checks("unchanged"));
+    }
+
+    @Test
+    void testMetadataFailureFallsBackToFullReadCountedAsUnknown() throws VaultException {
+        when(rawLogical.read(METADATA_PATH)).thenThrow(new VaultException("permission denied"));
+
+        SecretSource.Payload payload = source.read(previous);
+
+        assertEquals(Map.of("api_key", "key-3"), payload.data());
+        verify(logical, times(2)).read(SECRET_PATH);
+        assertEquals(1, checks("unknown"));
+        assertEquals(0, checks("changed"));
+        assertEquals(0, checks("unchanged"));
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("vault.secret.version.checks").tag("result", result).counter().count();
+    }
+
+    private static LogicalResponse secret(Map<String, String> data, Long version) {
+        DataMetadata dataMetadata = mock(DataMetadata.class);
+        when(dataMetadata.getVersion()).thenReturn(version);
+        LogicalResponse response = mock(LogicalResponse.class);
+        when(response.getData()).thenReturn(data);
+        when(response.getDataMetadata()).thenReturn(dataMetadata);
+        return response;
+    }
+
+    private static LogicalResponse metadata(String currentVersion) {
+        LogicalResponse response = mock(LogicalResponse.class);
+        when(response.getData()).thenReturn(Map.of("current_version", currentVersion));
+        return response;
+    }
+}
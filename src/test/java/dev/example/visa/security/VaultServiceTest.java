@@ -0,0 +1,208 @@
+package dev.example.visa.security;
+
+import dev.example.visa.config.StartupTimingRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for serving the secret snapshot from memory and refreshing it from the source.
+ */
+class VaultServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VaultIoExecutor ioExecutor = new VaultIoExecutor(2, 16, false, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        ioExecutor.shutdown();
+    }
+
+    @Test
+    void testFreshSnapshotIsServedWithoutFetching() {
+        FakeSource source = new FakeSource(read -> Map.of("api_key", "key-" + read));
+        VaultService service = service(source, Duration.ofHours(1));
+
+        service.ready().block(Duration.ofSeconds(5));
+        StepVerifier.create(service.getApiKey()).expectNext("key-1").verifyComplete();
+        StepVerifier.create(service.getApiKey()).expectNext("key-1").verifyComplete();
+
+        assertEquals(1, source.reads.get());
+        assertEquals(2.0, meterRegistry.counter("vault.secret.cache.requests", "result", "hit").count());
+    }
+
+    @Test
+    void testStaleSnapshotIsServedWhileOneRevalidationRuns() throws Exception {
+        CountDownLatch revalidating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FakeSource source = new FakeSource(read -> {
+            if (read == 2) {
+                revalidating.countDown();
+                await(release);
+            }
+            return Map.of("api_key", "key-" + read);
+        });
+        VaultService service = service(source, Duration.ZERO);
+        service.ready().block(Duration.ofSeconds(5));
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(service.getApiKey()).expectNext("key-1").verifyComplete();
+        }
+        assertTrue(revalidating.await(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertEquals(2, source.reads.get());
+        assertEquals(3.0, meterRegistry.counter("vault.secret.cache.requests", "result", "stale").count());
+    }
+
+    @Test
+    void testCachedSnapshotCountsStaleHitAndRevalidatesWithoutBlocking() throws Exception {
+        CountDownLatch revalidated = new CountDownLatch(1);
+        FakeSource source = new FakeSource(read -> {
+            if (read == 2) {
+                revalidated.countDown();
+            }
+            return Map.of("api_key", "key-" + read);
+        });
+        VaultService service = service(source, Duration.ZERO);
+        service.ready().block(Duration.ofSeconds(5));
+
+        assertEquals(1, service.currentSnapshot().orElseThrow().version());
+        assertEquals(0.0, meterRegistry.counter("vault.secret.cache.requests", "result", "stale").count());
+
+        assertEquals(1, service.cachedSnapshot().orElseThrow().version());
+        assertTrue(revalidated.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.counter("vault.secret.cache.requests", "result", "stale").count());
+    }
+
+    @Test
+    void testMissBeforeTheFirstLoadJoinsTheInitialLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FakeSource source = new FakeSource(read -> {
+            await(release);
+            return Map.of("api_key", "key-" + read);
+        });
+        VaultService service = service(source, Duration.ofHours(1));
+
+        Mono<String> first = service.getApiKey();
+        Mono<String> second = service.getApiKey();
+        Mono<SecretSnapshot> ready = service.ready();
+        StepVerifier.create(Mono.zip(first, second, ready))
+                .then(release::countDown)
+                .assertNext(results -> assertEquals("key-1", results.getT2()))
+                .verifyComplete();
+
+        assertEquals(1, source.reads.get());
+        assertEquals(1, source.initializations.get());
+    }
+
+    @Test
+    void testFailedInitialLoadIsNotCached() {
+        FakeSource source = new FakeSource(read -> {
+            if (read == 1) {
+                throw new IllegalStateException("Vault is sealed");
+            }
+            return Map.of("api_key", "key-" + read);
+        });
+        VaultService service = service(source, Duration.ofHours(1));
+
+        StepVerifier.create(service.ready())
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(service.ready())
+                .assertNext(snapshot -> assertEquals("key-2", snapshot.get("api_key").orElseThrow()))
+                .verifyComplete();
+
+        assertEquals(2, source.reads.get());
+        assertEquals(1, source.initializations.get());
+    }
+
+    @Test
+    void testMissDuringBackoffFailsFastWithoutReadingTheSource() {
+        FakeSource source = new FakeSource(read -> {
+            throw new IllegalStateException("Vault is sealed");
+        });
+        VaultService service = service(source, Duration.ofHours(1));
+
+        StepVerifier.create(service.ready())
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(service.getApiKey())
+                    .expectErrorSatisfies(e -> assertEquals("Vault is sealed", e.getCause().getMessage()))
+                    .verify(Duration.ofSeconds(5));
+        }
+
+        assertEquals(1, source.reads.get());
+        assertTrue(service.getNextRefreshAttempt().isAfter(Instant.now()));
+        assertEquals(3.0, meterRegistry.counter("vault.secret.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void testBackoffStaysWithinTheUpperHalfOfTheCappedDelay() {
+        Duration initial = Duration.ofSeconds(1);
+        Duration max = Duration.ofSeconds(30);
+
+        for (int failures = 1; failures <= 30; failures++) {
+            long capped = Math.min(initial.toMillis() << Math.min(failures - 1, 20), max.toMillis());
+            for (int i = 0; i < 100; i++) {
+                long delay = VaultService.backoffMillis(failures, initial, max);
+                assertTrue(delay >= capped / 2 && delay <= capped,
+                        "delay " + delay + " outside [" + capped / 2 + ", " + capped + "]");
+            }
+        }
+    }
+
+    private VaultService service(SecretSource source, Duration refreshInterval) {
+        return new VaultService(true, refreshInterval, Duration.ofSeconds(30), Duration.ofHours(24),
+                Duration.ofSeconds(1), Duration.ofMinutes(5), ioExecutor, source, event -> {
+        }, new StartupTimingRecorder(meterRegistry), meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class FakeSource implements SecretSource {
+
+        private final IntFunction<Map<String, String>> content;
+        private final AtomicInteger reads = new AtomicInteger();
+        private final AtomicInteger initializations = new AtomicInteger();
+
+        private FakeSource(IntFunction<Map<String, String>> content) {
+            this.content = content;
+        }
+
+        @Override
+        public String describe() {
+            return "fake";
+        }
+
+        @Override
+        public void initialize() {
+            initializations.incrementAndGet();
+        }
+
+        @Override
+        public Payload read(SecretSnapshot previous) {
+            return new Payload(content.apply(reads.incrementAndGet()), null);
+        }
+    }
+}
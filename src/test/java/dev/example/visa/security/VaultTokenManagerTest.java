@@ -0,0 +1,171 @@
+package dev.example.visa.security;
+
+import io.github.jopenlibs.vault.Vault;
+import io.github.jopenlibs.vault.VaultConfig;
+import io.github.jopenlibs.vault.VaultException;
+import io.github.jopenlibs.vault.api.Auth;
+import io.github.jopenlibs.vault.response.AuthResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.scheduling.TaskScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for AppRole login and background renewal of the Vault token.
+ */
+class VaultTokenManagerTest {
+
+    private static final Duration MIN_RENEW_DELAY = Duration.ofSeconds(5);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Duration> scheduledDelays = new ArrayList<>();
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final Map<Integer, VaultConfig> configs = new ConcurrentHashMap<>();
+    private final Vault vault = mock(Vault.class);
+    private final Vault rawPathVault = mock(Vault.class);
+    private final Auth auth = mock(Auth.class);
+
+    private VaultTokenManager manager;
+
+    @BeforeEach
+    void setUp() {
+        when(taskScheduler.schedule(any(Duration.class), any(Runnable.class))).thenAnswer(invocation -> {
+            scheduledDelays.add(invocation.getArgument(0));
+            return null;
+        });
+        when(vault.auth()).thenReturn(auth);
+        manager = new VaultTokenManager("http://localhost:8200", "role", "secret", 0.5,
+                MIN_RENEW_DELAY, RETRY_DELAY, taskScheduler, (config, engineVersion) -> {
+                    // The real client writes the engine version into its configuration
+                    Vault.create(config, engineVersion);
+                    configs.put(engineVersion, config);
+                    return engineVersion == 1 ? rawPathVault : vault;
+                }, meterRegistry);
+    }
+
+    @Test
+    void testRawPathClientDoesNotChangeTheEngineVersionOfThePrimaryClient() throws VaultException {
+        when(auth.loginByAppRole("role", "secret")).thenReturn(lease(100, true));
+
+        manager.login();
+
+        assertSame(vault, manager.vault());
+        assertSame(rawPathVault, manager.rawPathVault());
+        assertNotSame(configs.get(1), configs.get(2));
+        assertEquals(2, configs.get(2).getGlobalEngineVersion());
+        assertEquals(1, configs.get(1).getGlobalEngineVersion());
+    }
+
+    @Test
+    void testBothClientsUseTheTokenOfTheLatestLogin() throws VaultException {
+        AuthResponse first = lease(100, false);
+        AuthResponse second = lease(100, false);
+        when(second.getAuthClientToken()).thenReturn("token-2");
+        when(auth.loginByAppRole("role", "secret")).thenReturn(first, second);
+
+        manager.login();
+        assertEquals("token", configs.get(2).getToken());
+        assertEquals("token", configs.get(1).getToken());
+
+        manager.renew();
+        assertEquals("token-2", configs.get(2).getToken());
+        assertEquals("token-2", configs.get(1).getToken());
+    }
+
+    @Test
+    void testRenewalIsScheduledAtRenewFractionOfTtl() throws VaultException {
+        when(auth.loginByAppRole("role", "secret")).thenReturn(lease(100, true));
+
+        manager.login();
+
+        assertEquals(List.of(Duration.ofSeconds(50)), scheduledDelays);
+    }
+
+    @Test
+    void testRenewalIsNeverScheduledSoonerThanMinDelay() throws VaultException {
+        when(auth.loginByAppRole("role", "secret")).thenReturn(lease(4, true));
+
+        manager.login();
+
+        assertEquals(List.of(MIN_RENEW_DELAY), scheduledDelays);
+    }
+
+    @Test
+    void testRenewableTokenIsRenewedInPlace() throws VaultException {
+        when(auth.loginByAppRole("role", "secret")).thenReturn(lease(100, true));
+        when(auth.renewSelf()).thenReturn(lease(80, true));
+        manager.login();
+
+        manager.renew();
+
+        verify(auth, times(1)).loginByAppRole("role", "secret");
+        assertEquals(Duration.ofSeconds(40), scheduledDelays.get(scheduledDelays.size() - 1));
+        assertEquals(1, meterRegistry.get("vault.token.renewal")
+                .tags("operation", "renew", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void testNonRenewableTokenLogsInAgain() throws VaultException {
+        when(auth.loginByAppRole("role", "secret")).thenReturn(lease(100, false));
+        manager.login();
+
+        manager.renew();
+
+        verify(auth, never()).renewSelf();
+        verify(auth, times(2)).loginByAppRole("role", "secret");
+        assertEquals(List.of(Duration.ofSeconds(50), Duration.ofSeconds(50)), scheduledDelays);
+    }
+
+    @Test
+    void testFailedRenewalLogsInAgain() throws VaultException {
+        when(auth.loginByAppRole("role", "secret")).thenReturn(lease(100, true));
+        when(auth.renewSelf()).thenThrow(new VaultException("renewal failed"));
+        manager.login();
+
+        manager.renew();
+
+        verify(auth, times(2)).loginByAppRole("role", "secret");
+        assertEquals(1, meterRegistry.get("vault.token.renewal")
+                .tags("operation", "renew", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testFailedLoginRetriesAfterRetryDelay() throws VaultException {
+        when(auth.loginByAppRole("role", "secret"))
+                .thenReturn(lease(100, false))
+                .thenThrow(new VaultException("login failed"));
+        manager.login();
+
+        manager.renew();
+
+        assertEquals(RETRY_DELAY, scheduledDelays.get(scheduledDelays.size() - 1));
+        assertEquals(1, meterRegistry.get("vault.token.renewal")
+                .tags("operation", "login", "outcome", "failure").timer().count());
+        assertEquals(4, meterRegistry.get("vault.token.renewal").timers().size());
+    }
+
+    private static AuthResponse lease(long ttlSeconds, boolean renewable) {
+        AuthResponse response = mock(AuthResponse.class);
+        when(response.getAuthClientToken()).thenReturn("token");
+        when(response.getAuthLeaseDuration()).thenReturn(ttlSeconds);
+        when(response.isAuthRenewable()).thenReturn(renewable);
+        return response;
+    }
+}
@@ -0,0 +1,71 @@
+package dev.example.visa.service;
+
+import dev.example.visa.model.RequestStatusResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestStatusCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestStatusCache cache = new RequestStatusCache(true, 2, Duration.ofHours(1),
+            Duration.ofMillis(50), List.of("COMPLETED", "FAILED"), meterRegistry);
+
+    @Test
+    void terminalStatusesAreServedFromTheCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        status(cache, "trace-1", "COMPLETED", loads);
+        status(cache, " trace-1 ", "COMPLETED", loads);
+
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("visa.status-cache.hit-ratio").gauge().value());
+        assertTrue(cache.estimatedBytes() > 0);
+    }
+
+    @Test
+    void nonTerminalStatusesExpireQuickly() throws InterruptedException {
+        AtomicInteger loads = new AtomicInteger();
+
+        status(cache, "trace-2", "IN_PROGRESS", loads);
+        status(cache, "trace-2", "IN_PROGRESS", loads);
+        assertEquals(1, loads.get());
+
+        Thread.sleep(60);
+        status(cache, "trace-2", "COMPLETED", loads);
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.counter("visa.status-cache.evictions", "cause", "expired").count());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedStatusWhenFull() {
+        AtomicInteger loads = new AtomicInteger();
+
+        status(cache, "trace-a", "COMPLETED", loads);
+        status(cache, "trace-b", "COMPLETED", loads);
+        status(cache, "trace-a", "COMPLETED", loads);
+        status(cache, "trace-c", "FAILED", loads);
+
+        assertEquals(2, cache.size());
+        assertEquals(1.0, meterRegistry.counter("visa.status-cache.evictions", "cause", "size").count());
+        status(cache, "trace-a", "COMPLETED", loads);
+        assertEquals(3, loads.get());
+    }
+
+    private static void status(RequestStatusCache cache, String requestTraceId, String status, AtomicInteger loads) {
+        StepVerifier.create(cache.get(requestTraceId, () -> {
+                    loads.incrementAndGet();
+                    return Mono.just(RequestStatusResponse.builder().status(status).build());
+                }))
+                .expectNextMatches(response -> response.status() != null)
+                .verifyComplete();
+    }
+}
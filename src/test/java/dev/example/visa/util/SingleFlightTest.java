@@ -0,0 +1,95 @@
+package dev.example.visa.util;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for coalescing concurrent calls per key.
+ */
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testConcurrentCallsShareOneExecution() {
+        Sinks.One<String> result = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return result.asMono();
+        });
+
+        StepVerifier.create(Mono.zip(call, call))
+                .then(() -> assertEquals(1, singleFlight.inFlightCount()))
+                .then(() -> result.tryEmitValue("value"))
+                .assertNext(values -> assertEquals("value", values.getT2()))
+                .verifyComplete();
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testEntryIsRemovedOnSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 1; i <= 2; i++) {
+            StepVerifier.create(singleFlight.execute("key", () -> Mono.just("value-" + calls.incrementAndGet())))
+                    .expectNext("value-" + i)
+                    .verifyComplete();
+            assertEquals(0, singleFlight.inFlightCount());
+        }
+    }
+
+    @Test
+    void testEntryIsRemovedOnError() {
+        StepVerifier.create(singleFlight.execute("key", () -> Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(1));
+        assertEquals(0, singleFlight.inFlightCount());
+
+        // The failure is not cached, the next call executes again
+        StepVerifier.create(singleFlight.execute("key", () -> Mono.just("recovered")))
+                .expectNext("recovered")
+                .verifyComplete();
+    }
+
+    @Test
+    void testEntryIsRemovedWhenTheCallIsCancelled() {
+        Sinks.One<String> result = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+        Disposable subscription = singleFlight.execute("key", () -> {
+            calls.incrementAndGet();
+            return result.asMono();
+        }).subscribe();
+        assertEquals(1, singleFlight.inFlightCount());
+
+        subscription.dispose();
+        result.tryEmitValue("late");
+        assertEquals(0, singleFlight.inFlightCount());
+
+        StepVerifier.create(singleFlight.execute("key", () -> Mono.just("next")))
+                .expectNext("next")
+                .verifyComplete();
+    }
+
+    @Test
+    void testDifferentKeysAreNotCoalesced() {
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(Mono.zip(
+                        singleFlight.execute("a", () -> Mono.just("a-" + calls.incrementAndGet())),
+                        singleFlight.execute("b", () -> Mono.just("b-" + calls.incrementAndGet()))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(2, calls.get());
+    }
+}